@@ -1,5 +1,6 @@
 package com.megamart.cartserver.client;
 
+import com.megamart.cartserver.exception.ServiceUnavailableException;
 import lombok.Builder;
 import lombok.Data;
 import org.springframework.cloud.openfeign.FeignClient;
@@ -31,6 +32,9 @@ public interface ProductServiceClient {
 					.build());
 			}
 			return Optional.empty();
+		} catch (ServiceUnavailableException e) {
+			// Not the same as an unknown product; let the caller answer 503
+			throw e;
 		} catch (Exception e) {
 			System.err.println("Error calling product service: " + e.getMessage());
 			return Optional.empty();
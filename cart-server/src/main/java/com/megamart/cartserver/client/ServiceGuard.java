@@ -0,0 +1,77 @@
+package com.megamart.cartserver.client;
+
+import com.megamart.cartserver.exception.ServiceUnavailableException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Protects the callers of one downstream service. A semaphore bulkhead caps
+ * the calls in flight, the circuit breaker fails fast while the service
+ * keeps failing or answering slowly, and the time limiter stops waiting
+ * after a fixed time. All three surface as {@link ServiceUnavailableException};
+ * errors from the call itself are passed through unchanged.
+ */
+public class ServiceGuard {
+
+	private static final Duration RETRY_AFTER_BUSY = Duration.ofSeconds(1);
+
+	private final String service;
+	private final CircuitBreaker circuitBreaker;
+	private final Bulkhead bulkhead;
+	private final TimeLimiter timeLimiter;
+	private final ExecutorService executor;
+	private final Duration openStateWait;
+
+	ServiceGuard(String service, CircuitBreaker circuitBreaker, Bulkhead bulkhead,
+			TimeLimiter timeLimiter, ExecutorService executor, Duration openStateWait) {
+		this.service = service;
+		this.circuitBreaker = circuitBreaker;
+		this.bulkhead = bulkhead;
+		this.timeLimiter = timeLimiter;
+		this.executor = executor;
+		this.openStateWait = openStateWait;
+	}
+
+	public <T> T call(Supplier<T> call) {
+		try {
+			return execute(call::get);
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Like {@link #call(Supplier)}, for calls that throw checked exceptions.
+	 */
+	public <T> T execute(Callable<T> call) throws Exception {
+		Callable<T> guarded = Bulkhead.decorateCallable(bulkhead,
+				CircuitBreaker.decorateCallable(circuitBreaker,
+						timeLimiter.decorateFutureSupplier(() -> executor.submit(call))));
+		try {
+			return guarded.call();
+		} catch (CallNotPermittedException e) {
+			throw new ServiceUnavailableException(service, "circuit open", openStateWait);
+		} catch (BulkheadFullException e) {
+			throw new ServiceUnavailableException(service, "too many calls in flight", RETRY_AFTER_BUSY);
+		} catch (TimeoutException e) {
+			throw new ServiceUnavailableException(service,
+					"no answer within " + timeLimiter.getTimeLimiterConfig().getTimeoutDuration().toMillis() + "ms",
+					RETRY_AFTER_BUSY);
+		}
+	}
+
+	public CircuitBreaker.State getState() {
+		return circuitBreaker.getState();
+	}
+}
@@ -0,0 +1,80 @@
+package com.megamart.cartserver.config;
+
+import feign.Request;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+@EnableConfigurationProperties(HttpClientProperties.class)
+public class HttpClientConfig {
+
+	/**
+	 * Connection pool for every call to another service. Reusing kept-alive
+	 * connections saves a TCP handshake per lookup, and the per-route limit
+	 * stops one slow service from taking every connection.
+	 */
+	@Bean(destroyMethod = "close")
+	public PoolingHttpClientConnectionManager httpClientConnectionManager(HttpClientProperties properties) {
+		return PoolingHttpClientConnectionManagerBuilder.create()
+				.setMaxConnTotal(properties.getMaxConnections())
+				.setMaxConnPerRoute(properties.getMaxConnectionsPerRoute())
+				.setDefaultConnectionConfig(ConnectionConfig.custom()
+						.setConnectTimeout(Timeout.of(properties.getConnectTimeout()))
+						.setSocketTimeout(Timeout.of(properties.getReadTimeout()))
+						.setTimeToLive(TimeValue.of(properties.getTimeToLive()))
+						.setValidateAfterInactivity(TimeValue.of(properties.getValidateAfterInactivity()))
+						.build())
+				.build();
+	}
+
+	/**
+	 * Shared by the RestTemplate and, through feign-hc5, the Feign clients.
+	 */
+	@Bean(destroyMethod = "close")
+	public CloseableHttpClient httpClient(PoolingHttpClientConnectionManager connectionManager,
+			HttpClientProperties properties) {
+		return HttpClients.custom()
+				.setConnectionManager(connectionManager)
+				.setDefaultRequestConfig(RequestConfig.custom()
+						.setConnectionRequestTimeout(Timeout.of(properties.getPoolTimeout()))
+						.setResponseTimeout(Timeout.of(properties.getReadTimeout()))
+						.setConnectionKeepAlive(TimeValue.of(properties.getKeepAlive()))
+						.build())
+				.evictExpiredConnections()
+				.evictIdleConnections(TimeValue.of(properties.getMaxIdleTime()))
+				.build();
+	}
+
+	/**
+	 * Feign sets its own timeouts on each request (10s/60s by default), so
+	 * give it the same ones as the RestTemplate.
+	 */
+	@Bean
+	public Request.Options feignRequestOptions(HttpClientProperties properties) {
+		return new Request.Options(
+				properties.getConnectTimeout().toMillis(), TimeUnit.MILLISECONDS,
+				properties.getReadTimeout().toMillis(), TimeUnit.MILLISECONDS,
+				true);
+	}
+
+	/**
+	 * Publishes httpcomponents.httpclient.pool.* (leased, available, pending).
+	 */
+	@Bean
+	public MeterBinder httpClientPoolMetrics(PoolingHttpClientConnectionManager connectionManager) {
+		return new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "inter-service");
+	}
+}
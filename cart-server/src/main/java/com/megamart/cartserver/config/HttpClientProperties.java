@@ -0,0 +1,35 @@
+package com.megamart.cartserver.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for the pooled HTTP client shared by the RestTemplate and the
+ * Feign clients (http.client.*).
+ */
+@Data
+@ConfigurationProperties(prefix = "http.client")
+public class HttpClientProperties {
+
+	// Open connections across all services, and to any one host:port
+	private int maxConnections = 200;
+	private int maxConnectionsPerRoute = 50;
+
+	private Duration connectTimeout = Duration.ofSeconds(2);
+	private Duration readTimeout = Duration.ofSeconds(5);
+
+	// How long a request waits for a free pooled connection
+	private Duration poolTimeout = Duration.ofSeconds(1);
+
+	// Reuse window for connections whose server sends no Keep-Alive header
+	private Duration keepAlive = Duration.ofSeconds(30);
+
+	// Idle connections are closed after this, and all after time-to-live
+	private Duration maxIdleTime = Duration.ofSeconds(30);
+	private Duration timeToLive = Duration.ofMinutes(5);
+
+	// Connections idle for longer are checked before being reused
+	private Duration validateAfterInactivity = Duration.ofSeconds(2);
+}
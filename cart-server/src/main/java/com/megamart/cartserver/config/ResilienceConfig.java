@@ -0,0 +1,23 @@
+package com.megamart.cartserver.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+@EnableConfigurationProperties(ResilienceProperties.class)
+public class ResilienceConfig {
+
+	/**
+	 * Executor that runs guarded calls to other services, so the request
+	 * thread can stop waiting when the time limit passes. Abandoned calls
+	 * park a virtual thread, not a Tomcat one.
+	 */
+	@Bean(destroyMethod = "close")
+	public ExecutorService remoteCallExecutor() {
+		return Executors.newVirtualThreadPerTaskExecutor();
+	}
+}
@@ -117,6 +117,16 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
 		));
 	}
 
+	@ExceptionHandler(ServiceUnavailableException.class)
+	public ResponseEntity<Object> handleServiceUnavailable(ServiceUnavailableException ex) {
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+			.header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ex.getRetryAfter().toSeconds())))
+			.body(Map.of(
+				"status", HttpStatus.SERVICE_UNAVAILABLE.value(),
+				"error", ex.getMessage()
+			));
+	}
+
 	@ExceptionHandler(Exception.class)
 	public ResponseEntity<Object> handleAny(Exception ex) {
 		String errorId = UUID.randomUUID().toString();
@@ -0,0 +1,17 @@
+package com.megamart.cartserver.exception;
+
+import java.time.Duration;
+
+public class ServiceUnavailableException extends RuntimeException {
+
+	private final Duration retryAfter;
+
+	public ServiceUnavailableException(String service, String reason, Duration retryAfter) {
+		super(String.format("%s is unavailable (%s), please retry shortly", service, reason));
+		this.retryAfter = retryAfter;
+	}
+
+	public Duration getRetryAfter() {
+		return retryAfter;
+	}
+}
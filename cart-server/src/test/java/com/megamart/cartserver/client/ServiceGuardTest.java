@@ -0,0 +1,176 @@
+package com.megamart.cartserver.client;
+
+import com.megamart.cartserver.config.ResilienceProperties;
+import com.megamart.cartserver.exception.ServiceUnavailableException;
+import feign.Client;
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Response;
+import feign.Target;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServiceGuardTest {
+
+	private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+	@AfterEach
+	void tearDown() {
+		executor.close();
+	}
+
+	@Test
+	void circuitOpensAfterFailuresAndThenFailsFast() {
+		ServiceGuard guard = guards(properties -> {
+			properties.setSlidingWindowSize(4);
+			properties.setMinimumCalls(4);
+		}).forService("product-server");
+
+		for (int i = 0; i < 4; i++) {
+			assertThrows(ResourceAccessException.class,
+					() -> guard.call(() -> { throw new ResourceAccessException("connection refused"); }));
+		}
+		assertEquals(CircuitBreaker.State.OPEN, guard.getState());
+
+		AtomicInteger calls = new AtomicInteger();
+		assertThrows(ServiceUnavailableException.class, () -> guard.call(calls::incrementAndGet));
+		assertEquals(0, calls.get());
+	}
+
+	@Test
+	void clientErrorsDoNotOpenTheCircuit() {
+		ServiceGuard guard = guards(properties -> {
+			properties.setSlidingWindowSize(4);
+			properties.setMinimumCalls(4);
+		}).forService("product-server");
+
+		for (int i = 0; i < 10; i++) {
+			assertThrows(HttpClientErrorException.NotFound.class, () -> guard.call(() -> {
+				throw HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null);
+			}));
+		}
+		assertEquals(CircuitBreaker.State.CLOSED, guard.getState());
+	}
+
+	@Test
+	void bulkheadRejectsCallsBeyondTheLimit() throws Exception {
+		ServiceGuard guard = guards(properties -> properties.setMaxConcurrentCalls(2)).forService("product-server");
+		CountDownLatch started = new CountDownLatch(2);
+		CountDownLatch release = new CountDownLatch(1);
+
+		Future<?> first = executor.submit(() -> guard.call(() -> blockUntil(started, release)));
+		Future<?> second = executor.submit(() -> guard.call(() -> blockUntil(started, release)));
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+
+		assertThrows(ServiceUnavailableException.class, () -> guard.call(() -> "third"));
+		release.countDown();
+		first.get(5, TimeUnit.SECONDS);
+		second.get(5, TimeUnit.SECONDS);
+		assertEquals("fourth", guard.call(() -> "fourth"));
+	}
+
+	@Test
+	void slowCallsAreAbandonedAfterTheTimeout() {
+		ServiceGuard guard = guards(properties -> properties.setTimeout(Duration.ofMillis(200))).forService("product-server");
+		CountDownLatch interrupted = new CountDownLatch(1);
+
+		long start = System.nanoTime();
+		assertThrows(ServiceUnavailableException.class, () -> guard.call(() -> {
+			try {
+				Thread.sleep(10_000);
+			} catch (InterruptedException e) {
+				interrupted.countDown();
+			}
+			return "late";
+		}));
+		assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+		assertDoesNotThrow(() -> assertTrue(interrupted.await(5, TimeUnit.SECONDS)));
+	}
+
+	@Test
+	void feignServerErrorsCountAsFailuresButReachTheDecoder() throws Exception {
+		ServiceGuards guards = guards(properties -> {
+			properties.setSlidingWindowSize(2);
+			properties.setMinimumCalls(2);
+		});
+		Client unavailable = (request, options) -> Response.builder()
+				.request(request)
+				.status(503)
+				.reason("Service Unavailable")
+				.headers(Map.of())
+				.body("down", StandardCharsets.UTF_8)
+				.build();
+		Client client = new GuardedFeignCapability(guards).enrich(unavailable);
+
+		for (int i = 0; i < 2; i++) {
+			assertEquals(503, client.execute(request("product-server"), new Request.Options()).status());
+		}
+		assertEquals(CircuitBreaker.State.OPEN, guards.forService("product-server").getState());
+		assertThrows(ServiceUnavailableException.class,
+				() -> client.execute(request("product-server"), new Request.Options()));
+		assertEquals(CircuitBreaker.State.CLOSED, guards.forService("order-payment-server").getState());
+	}
+
+	@Test
+	void feignClientErrorsPassThroughWithoutOpeningTheCircuit() throws Exception {
+		ServiceGuards guards = guards(properties -> {
+			properties.setSlidingWindowSize(2);
+			properties.setMinimumCalls(2);
+		});
+		Client notFound = (request, options) -> Response.builder()
+				.request(request)
+				.status(404)
+				.reason("Not Found")
+				.headers(Map.of())
+				.body("no such product", StandardCharsets.UTF_8)
+				.build();
+		Client client = new GuardedFeignCapability(guards).enrich(notFound);
+
+		for (int i = 0; i < 5; i++) {
+			assertEquals(404, client.execute(request("product-server"), new Request.Options()).status());
+		}
+		assertEquals(CircuitBreaker.State.CLOSED, guards.forService("product-server").getState());
+	}
+
+	private ServiceGuards guards(Consumer<ResilienceProperties> customizer) {
+		ResilienceProperties properties = new ResilienceProperties();
+		customizer.accept(properties);
+		return new ServiceGuards(properties, executor);
+	}
+
+	private static String blockUntil(CountDownLatch started, CountDownLatch release) {
+		started.countDown();
+		try {
+			release.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return "done";
+	}
+
+	private static Request request(String service) {
+		RequestTemplate template = new RequestTemplate()
+				.method(Request.HttpMethod.GET)
+				.uri("/products/1")
+				.feignTarget(new Target.HardCodedTarget<>(Object.class, service, "http://product-server/api"));
+		return Request.create(Request.HttpMethod.GET, "http://product-server/api/products/1",
+				Map.of(), null, StandardCharsets.UTF_8, template);
+	}
+}
@@ -5,14 +5,15 @@ import org.springframework.web.bind.annotation.*;
 import java.util.List;
 import java.util.Map;
 
-@FeignClient(name = "cart-service", url = "http://localhost:8087")
+@FeignClient(name = "cart-server")
 public interface CartServiceClient {
 
     @GetMapping("/cart/{userId}")
     CartResponse getCart(@PathVariable String userId);
 
-    @DeleteMapping("/cart/{userId}")
-    void clearCart(@PathVariable String userId);
+    // Removing an item that is already gone is a no-op, so redelivery is safe
+    @DeleteMapping("/cart/{userId}/items/{itemId}")
+    void removeItem(@PathVariable String userId, @PathVariable Long itemId);
 
     static class CartResponse {
         private Long id;
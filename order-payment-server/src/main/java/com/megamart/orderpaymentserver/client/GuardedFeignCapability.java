@@ -0,0 +1,52 @@
+package com.megamart.orderpaymentserver.client;
+
+import feign.Capability;
+import feign.Client;
+import feign.Response;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Sends every Feign client's requests through the {@link ServiceGuard} of the
+ * client's name. A 5xx response counts as a failed call but is still handed
+ * back to Feign, so its error decoding is unchanged.
+ */
+@Component
+@RequiredArgsConstructor
+public class GuardedFeignCapability implements Capability {
+
+    private final ServiceGuards serviceGuards;
+
+    @Override
+    public Client enrich(Client client) {
+        return (request, options) -> {
+            ServiceGuard guard = serviceGuards.forService(request.requestTemplate().feignTarget().name());
+            try {
+                return guard.execute(() -> {
+                    Response response = client.execute(request, options);
+                    if (response.status() >= 500) {
+                        throw new ServerErrorResponse(response);
+                    }
+                    return response;
+                });
+            } catch (ServerErrorResponse e) {
+                return e.response;
+            } catch (IOException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException(e);
+            }
+        };
+    }
+
+    private static final class ServerErrorResponse extends RuntimeException {
+        private final transient Response response;
+
+        private ServerErrorResponse(Response response) {
+            super("HTTP " + response.status(), null, false, false);
+            this.response = response;
+        }
+    }
+}
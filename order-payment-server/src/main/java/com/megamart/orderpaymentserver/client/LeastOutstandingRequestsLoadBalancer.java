@@ -0,0 +1,108 @@
+package com.megamart.orderpaymentserver.client;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.SelectedInstanceCallback;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends each call to the instance of a service with the fewest calls from
+ * this server still in flight, taking turns among instances that are level.
+ * A replica that slows down holds on to its calls for longer and so gets
+ * fewer new ones, without waiting for a response-time average to catch up.
+ * <p>
+ * In-flight counts come from the lifecycle callbacks that both the Feign
+ * clients and the load-balanced RestTemplate make around each call.
+ */
+@Slf4j
+public class LeastOutstandingRequestsLoadBalancer
+        implements ReactorServiceInstanceLoadBalancer, LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+    private final String serviceId;
+    private final ObjectProvider<ServiceInstanceListSupplier> instanceSuppliers;
+    // Only instances with calls in flight have an entry
+    private final Map<String, Integer> outstanding = new ConcurrentHashMap<>();
+    private final AtomicInteger position = new AtomicInteger(ThreadLocalRandom.current().nextInt(1000));
+
+    public LeastOutstandingRequestsLoadBalancer(String serviceId,
+                                                ObjectProvider<ServiceInstanceListSupplier> instanceSuppliers) {
+        this.serviceId = serviceId;
+        this.instanceSuppliers = instanceSuppliers;
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = instanceSuppliers.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(instances -> {
+            Response<ServiceInstance> response = select(instances);
+            if (supplier instanceof SelectedInstanceCallback callback && response.hasServer()) {
+                callback.selectedServiceInstance(response.getServer());
+            }
+            return response;
+        });
+    }
+
+    Response<ServiceInstance> select(List<ServiceInstance> instances) {
+        if (instances.isEmpty()) {
+            log.warn("No healthy instances of {} to call", serviceId);
+            return new EmptyResponse();
+        }
+        int start = Math.floorMod(position.getAndIncrement(), instances.size());
+        ServiceInstance chosen = null;
+        int fewest = Integer.MAX_VALUE;
+        for (int i = 0; i < instances.size(); i++) {
+            ServiceInstance instance = instances.get((start + i) % instances.size());
+            int inFlight = getOutstanding(instance);
+            if (inFlight < fewest) {
+                chosen = instance;
+                fewest = inFlight;
+            }
+        }
+        return new DefaultResponse(chosen);
+    }
+
+    public int getOutstanding(ServiceInstance instance) {
+        return outstanding.getOrDefault(key(instance), 0);
+    }
+
+    @Override
+    public void onStart(Request<Object> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+        if (lbResponse != null && lbResponse.hasServer()) {
+            outstanding.merge(key(lbResponse.getServer()), 1, Integer::sum);
+        }
+    }
+
+    @Override
+    public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (lbResponse != null && lbResponse.hasServer()) {
+            outstanding.computeIfPresent(key(lbResponse.getServer()), (key, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    // Instances are re-read from discovery, so key by address rather than object identity
+    private static String key(ServiceInstance instance) {
+        return instance.getHost() + ":" + instance.getPort();
+    }
+}
@@ -3,9 +3,10 @@ package com.megamart.orderpaymentserver.client;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.*;
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Map;
 
-@FeignClient(name = "product-service", url = "http://localhost:9096/api")
+@FeignClient(name = "product-server", path = "/api")
 public interface ProductServiceClient {
 
     @GetMapping("/products/{productId}")
@@ -14,6 +15,10 @@ public interface ProductServiceClient {
     @PostMapping("/products/{productId}/stock")
     Map<String, Object> updateStock(@PathVariable Long productId, @RequestBody Map<String, Integer> request);
 
+    // Applies each item at most once per idempotency key; returns the outcome per key in "data"
+    @PostMapping("/products/stock/adjustments")
+    Map<String, Object> applyStockAdjustments(@RequestBody StockAdjustmentRequest request);
+
     static class ProductResponse {
         private boolean success;
         private ProductData data;
@@ -50,4 +55,49 @@ public interface ProductServiceClient {
         public String getBrand() { return brand; }
         public void setBrand(String brand) { this.brand = brand; }
     }
+
+    static class StockAdjustmentRequest {
+        private List<StockAdjustmentItem> items;
+
+        public StockAdjustmentRequest() {}
+
+        public StockAdjustmentRequest(List<StockAdjustmentItem> items) {
+            this.items = items;
+        }
+
+        // Getters and Setters
+        public List<StockAdjustmentItem> getItems() { return items; }
+        public void setItems(List<StockAdjustmentItem> items) { this.items = items; }
+    }
+
+    static class StockAdjustmentItem {
+        private String idempotencyKey;
+        private Long productId;
+        private Integer stockChange;
+        // Key of the adjustment this one undoes; applied only if that one was, and blocks it otherwise
+        private String reverses;
+
+        public StockAdjustmentItem() {}
+
+        public StockAdjustmentItem(String idempotencyKey, Long productId, Integer stockChange) {
+            this.idempotencyKey = idempotencyKey;
+            this.productId = productId;
+            this.stockChange = stockChange;
+        }
+
+        public StockAdjustmentItem(String idempotencyKey, Long productId, Integer stockChange, String reverses) {
+            this(idempotencyKey, productId, stockChange);
+            this.reverses = reverses;
+        }
+
+        // Getters and Setters
+        public String getIdempotencyKey() { return idempotencyKey; }
+        public void setIdempotencyKey(String idempotencyKey) { this.idempotencyKey = idempotencyKey; }
+        public Long getProductId() { return productId; }
+        public void setProductId(Long productId) { this.productId = productId; }
+        public Integer getStockChange() { return stockChange; }
+        public void setStockChange(Integer stockChange) { this.stockChange = stockChange; }
+        public String getReverses() { return reverses; }
+        public void setReverses(String reverses) { this.reverses = reverses; }
+    }
 }
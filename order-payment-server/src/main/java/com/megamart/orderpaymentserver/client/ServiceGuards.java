@@ -0,0 +1,85 @@
+package com.megamart.orderpaymentserver.client;
+
+import com.megamart.orderpaymentserver.config.ResilienceProperties;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedTimeLimiterMetrics;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * One {@link ServiceGuard} per downstream service, keyed by service name.
+ * Their circuit breaker state, bulkhead usage and call outcomes are published
+ * as resilience4j.* meters tagged with that name.
+ */
+@Component
+@Slf4j
+public class ServiceGuards {
+
+    private final CircuitBreakerRegistry circuitBreakers;
+    private final BulkheadRegistry bulkheads;
+    private final TimeLimiterRegistry timeLimiters;
+    private final ExecutorService executor;
+    private final ResilienceProperties properties;
+    private final Map<String, ServiceGuard> guards = new ConcurrentHashMap<>();
+
+    public ServiceGuards(ResilienceProperties properties,
+                         @Qualifier("remoteCallExecutor") ExecutorService executor) {
+        this.properties = properties;
+        this.executor = executor;
+        this.circuitBreakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .failureRateThreshold(properties.getFailureRateThreshold())
+                .slowCallRateThreshold(properties.getSlowCallRateThreshold())
+                .slowCallDurationThreshold(properties.getSlowCallDuration())
+                .slidingWindowSize(properties.getSlidingWindowSize())
+                .minimumNumberOfCalls(properties.getMinimumCalls())
+                .waitDurationInOpenState(properties.getOpenStateWait())
+                .permittedNumberOfCallsInHalfOpenState(properties.getHalfOpenCalls())
+                // A 4xx is the caller's problem, not a sign the service is unwell
+                .ignoreExceptions(HttpClientErrorException.class)
+                .build());
+        this.bulkheads = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(properties.getMaxConcurrentCalls())
+                .maxWaitDuration(properties.getMaxWait())
+                .build());
+        this.timeLimiters = TimeLimiterRegistry.of(TimeLimiterConfig.custom()
+                .timeoutDuration(properties.getTimeout())
+                .cancelRunningFuture(true)
+                .build());
+    }
+
+    @Autowired
+    void bindMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+        meterRegistry.ifAvailable(registry -> {
+            TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakers).bindTo(registry);
+            TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheads).bindTo(registry);
+            TaggedTimeLimiterMetrics.ofTimeLimiterRegistry(timeLimiters).bindTo(registry);
+        });
+    }
+
+    public ServiceGuard forService(String service) {
+        return guards.computeIfAbsent(service, name -> {
+            CircuitBreaker circuitBreaker = circuitBreakers.circuitBreaker(name);
+            circuitBreaker.getEventPublisher().onStateTransition(event ->
+                    log.warn("Circuit breaker for {}: {}", name, event.getStateTransition()));
+            return new ServiceGuard(name, circuitBreaker, bulkheads.bulkhead(name),
+                    timeLimiters.timeLimiter(name), executor, properties.getOpenStateWait());
+        });
+    }
+}
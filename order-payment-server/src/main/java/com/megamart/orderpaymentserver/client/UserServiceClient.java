@@ -1,29 +1,69 @@
 package com.megamart.orderpaymentserver.client;
 
+import com.megamart.orderpaymentserver.exception.ServiceUnavailableException;
+import com.megamart.orderpaymentserver.service.LookupCache;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
 import java.util.Map;
+import java.util.Optional;
 
 @Component
 @Slf4j
 public class UserServiceClient {
-    
+
     @Autowired
     private RestTemplate restTemplate;
-    
+
     private static final String USER_SERVICE_URL = "http://user-admin-server/api";
-    
+
+    // User details change rarely but are read on every getOrderById
+    private final LookupCache<String, Map<String, Object>> users;
+    private final ServiceGuard userAdmin;
+
+    public UserServiceClient(@Value("${user-data.cache.max-size:10000}") int cacheMaxSize,
+                             @Value("${user-data.cache.ttl:PT5M}") Duration cacheTtl,
+                             @Value("${user-data.cache.negative-ttl:PT30S}") Duration cacheNegativeTtl,
+                             ServiceGuards serviceGuards) {
+        this.users = new LookupCache<>(cacheMaxSize, cacheTtl, cacheNegativeTtl);
+        this.userAdmin = serviceGuards.forService("user-admin-server");
+    }
+
+    @Autowired
+    void bindMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+        meterRegistry.ifAvailable(registry -> users.bindTo(registry, "user-admin.users"));
+    }
+
+    // Null when user-admin cannot answer; orders are then shown without customer details
     public Map<String, Object> getUserById(String userId) {
         try {
-            String url = USER_SERVICE_URL + "/users/by-user-id/" + userId;
-            log.info("Fetching user details from: {}", url);
-            return restTemplate.getForObject(url, Map.class);
+            return users.get(userId, this::fetchUser);
+        } catch (ServiceUnavailableException e) {
+            log.warn("Skipping user details for userId {}: {}", userId, e.getMessage());
+            return null;
         } catch (Exception e) {
             log.error("Failed to fetch user details for userId: {}", userId, e);
             return null;
         }
     }
+
+    // Empty on 404 so the absence is cached; other failures propagate and are not
+    @SuppressWarnings("unchecked")
+    private Optional<Map<String, Object>> fetchUser(String userId) {
+        String url = USER_SERVICE_URL + "/users/by-user-id/" + userId;
+        log.info("Fetching user details from: {}", url);
+        try {
+            return Optional.ofNullable(userAdmin.call(() -> restTemplate.getForObject(url, Map.class)));
+        } catch (HttpClientErrorException.NotFound e) {
+            log.warn("User not found in user service: {}", userId);
+            return Optional.empty();
+        }
+    }
 }
@@ -0,0 +1,20 @@
+package com.megamart.orderpaymentserver.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class EnrichmentExecutorConfig {
+
+    /**
+     * Executor for the remote lookups that decorate order responses. The calls
+     * are blocking HTTP requests, so each one gets its own virtual thread.
+     */
+    @Bean(destroyMethod = "close")
+    public ExecutorService orderEnrichmentExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+}
@@ -0,0 +1,53 @@
+package com.megamart.orderpaymentserver.config;
+
+import com.megamart.orderpaymentserver.client.LeastOutstandingRequestsLoadBalancer;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Calls to other services are addressed by their Eureka name and spread
+ * over the instances registered under it.
+ */
+@Configuration
+@LoadBalancerClients(defaultConfiguration = LoadBalancerConfig.PerServiceConfig.class)
+public class LoadBalancerConfig {
+
+    /**
+     * Created once per called service, in that service's own load balancer
+     * context, so it must not be a component-scanned @Configuration.
+     */
+    public static class PerServiceConfig {
+
+        /**
+         * Instances from Eureka, narrowed to those whose /actuator/health
+         * answered at the last check. The healthy list is kept between checks,
+         * so choosing an instance never waits on a health probe.
+         */
+        @Bean
+        public ServiceInstanceListSupplier healthCheckedInstanceSupplier(ConfigurableApplicationContext context,
+                                                                         CloseableHttpClient httpClient) {
+            // Probes go to each instance's own address, so not the @LoadBalanced RestTemplate
+            RestTemplate healthCheckClient = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+            return ServiceInstanceListSupplier.builder()
+                    .withBlockingDiscoveryClient()
+                    .withBlockingHealthChecks(healthCheckClient)
+                    .build(context);
+        }
+
+        @Bean
+        public LeastOutstandingRequestsLoadBalancer leastOutstandingRequestsLoadBalancer(
+                Environment environment, LoadBalancerClientFactory loadBalancerClientFactory) {
+            String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+            return new LeastOutstandingRequestsLoadBalancer(serviceId,
+                    loadBalancerClientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class));
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.megamart.orderpaymentserver.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+@EnableConfigurationProperties(PaymentGatewayProperties.class)
+public class PaymentGatewayConfig {
+
+    /**
+     * Executor that completes payments once the gateway has answered, so the
+     * request thread that accepted the payment is never held while waiting.
+     */
+    @Bean(destroyMethod = "close")
+    public ExecutorService paymentGatewayExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+}
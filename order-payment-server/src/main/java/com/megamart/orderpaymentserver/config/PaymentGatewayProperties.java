@@ -0,0 +1,55 @@
+package com.megamart.orderpaymentserver.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Settings for the payment gateway (payment.gateway.*). Latency, failure and
+ * timeout behaviour of the local simulator can be tuned per payment type, e.g.
+ * payment.gateway.profiles.UPI.failure-rate=0.3.
+ */
+@Data
+@ConfigurationProperties(prefix = "payment.gateway")
+public class PaymentGatewayProperties {
+    
+    // Median and 99th percentile of the simulated provider latency
+    private Duration latency = Duration.ofSeconds(1);
+    private Duration latencyP99;
+    
+    // How long we wait for the provider before failing the payment
+    private Duration timeout = Duration.ofSeconds(10);
+    
+    // Maximum number of payments waiting on the provider at once
+    private int maxConcurrent = 200;
+    
+    private Map<String, Profile> profiles = new HashMap<>(Map.of(
+            "CARD", new Profile(null, null, 0.05, 0.0),
+            "UPI", new Profile(null, null, 0.1, 0.0),
+            "COD", new Profile(null, null, 0.0, 0.0)));
+    
+    public Profile profileFor(String paymentType) {
+        Profile profile = paymentType != null ? profiles.get(paymentType) : null;
+        return profile != null ? profile : new Profile();
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Profile {
+        // Overrides of the gateway-wide latency settings; null means inherit
+        private Duration latency;
+        private Duration latencyP99;
+        
+        // Fraction of payments declined by the provider
+        private double failureRate;
+        
+        // Fraction of payments the provider never answers
+        private double timeoutRate;
+    }
+}
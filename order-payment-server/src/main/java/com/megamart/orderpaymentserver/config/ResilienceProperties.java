@@ -0,0 +1,34 @@
+package com.megamart.orderpaymentserver.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Circuit breaker, bulkhead and time limit applied to each service this one
+ * calls (resilience.*). Every downstream service gets its own instance of
+ * each, configured the same way.
+ */
+@Data
+@ConfigurationProperties(prefix = "resilience")
+public class ResilienceProperties {
+
+    // The circuit opens when this percentage of the last calls failed or were slow
+    private float failureRateThreshold = 50;
+    private float slowCallRateThreshold = 80;
+    private Duration slowCallDuration = Duration.ofSeconds(2);
+    private int slidingWindowSize = 20;
+    private int minimumCalls = 10;
+
+    // How long an open circuit fails fast before letting trial calls through
+    private Duration openStateWait = Duration.ofSeconds(10);
+    private int halfOpenCalls = 3;
+
+    // Calls to one service in flight at once; callers beyond that wait up to maxWait, then fail
+    private int maxConcurrentCalls = 25;
+    private Duration maxWait = Duration.ZERO;
+
+    // How long a caller waits for an answer, whatever the HTTP timeouts
+    private Duration timeout = Duration.ofSeconds(3);
+}
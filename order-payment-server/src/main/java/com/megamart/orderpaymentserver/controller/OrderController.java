@@ -1,7 +1,14 @@
 package com.megamart.orderpaymentserver.controller;
 
+import com.megamart.orderpaymentserver.dto.OrderAnalyticsResponse;
+import com.megamart.orderpaymentserver.dto.OrderCursorPage;
 import com.megamart.orderpaymentserver.dto.OrderRequest;
 import com.megamart.orderpaymentserver.dto.OrderResponse;
+import com.megamart.orderpaymentserver.dto.OrderSearchCriteria;
+import com.megamart.orderpaymentserver.entity.OrderRollup;
+import com.megamart.orderpaymentserver.service.IdempotencyService;
+import com.megamart.orderpaymentserver.service.OrderAnalyticsService;
+import com.megamart.orderpaymentserver.service.OrderExportService;
 import com.megamart.orderpaymentserver.service.OrderService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -13,10 +20,16 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -30,23 +43,41 @@ import java.util.Map;
 public class OrderController {
     
     private final OrderService orderService;
+    private final OrderExportService orderExportService;
+    private final OrderAnalyticsService orderAnalyticsService;
+    private final IdempotencyService idempotencyService;
     
     @Operation(summary = "Create new order", description = "Create a new order with items, address, and payment method")
     @PostMapping
-    public ResponseEntity<OrderResponse> createOrder(@Valid @RequestBody OrderRequest request) {
+    public ResponseEntity<OrderResponse> createOrder(
+            @Valid @RequestBody OrderRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
         log.info("Creating order for user: {}", request.getUserId());
-        OrderResponse orderResponse = orderService.createOrder(request);
-        return ResponseEntity.status(HttpStatus.CREATED).body(orderResponse);
+        IdempotencyService.Result<OrderResponse> result = idempotencyService.execute(
+                "create-order:" + request.getUserId(), idempotencyKey, request, OrderResponse.class,
+                () -> orderService.createOrder(request));
+        return created(result);
     }
     
     @Operation(summary = "Create order from cart", description = "Create order from user's cart items")
     @PostMapping("/from-cart/{userId}")
     public ResponseEntity<OrderResponse> createOrderFromCart(
             @PathVariable String userId,
-            @Valid @RequestBody OrderFromCartRequest request) {
+            @Valid @RequestBody OrderFromCartRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
         log.info("Creating order from cart for user: {}", userId);
-        OrderResponse orderResponse = orderService.createOrderFromCart(userId, request.getAddress(), request.getPaymentMethod());
-        return ResponseEntity.status(HttpStatus.CREATED).body(orderResponse);
+        IdempotencyService.Result<OrderResponse> result = idempotencyService.execute(
+                "create-order-from-cart:" + userId, idempotencyKey, request, OrderResponse.class,
+                () -> orderService.createOrderFromCart(userId, request.getAddress(), request.getPaymentMethod()));
+        return created(result);
+    }
+    
+    private static ResponseEntity<OrderResponse> created(IdempotencyService.Result<OrderResponse> result) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.CREATED);
+        if (result.replayed()) {
+            response.header(IdempotencyService.REPLAYED_HEADER, "true");
+        }
+        return response.body(result.body());
     }
     
     public static class OrderFromCartRequest {
@@ -85,6 +116,30 @@ public class OrderController {
         return ResponseEntity.ok(orders);
     }
     
+    @Operation(
+        summary = "Search orders",
+        description = "Filter orders by status, payment status, user and creation date, newest first. "
+            + "Pass nextCursor from the previous page to continue (Admin only)"
+    )
+    @GetMapping("/search")
+    public ResponseEntity<OrderCursorPage> searchOrders(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String paymentStatus,
+            @RequestParam(required = false) String userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        OrderSearchCriteria criteria = OrderSearchCriteria.builder()
+                .status(status)
+                .paymentStatus(paymentStatus)
+                .userId(userId)
+                .from(from)
+                .to(to)
+                .build();
+        return ResponseEntity.ok(orderService.searchOrders(criteria, cursor, size));
+    }
+    
     @Operation(
         summary = "Update order status", 
         description = "Update order status following proper workflow: PENDING → CONFIRMED → PROCESSING → SHIPPED → DELIVERED"
@@ -164,23 +219,52 @@ public class OrderController {
     
     @Operation(summary = "Simple orders list", description = "Get orders without complex mapping")
     @GetMapping("/debug/simple")
-    public ResponseEntity<Map<String, Object>> getSimpleOrders() {
-        try {
-            List<Map<String, Object>> orders = orderService.getSimpleOrdersList();
-            Map<String, Object> response = new HashMap<>();
-            response.put("content", orders);
-            response.put("totalElements", orders.size());
-            response.put("totalPages", 1);
-            response.put("size", orders.size());
-            response.put("number", 0);
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            log.error("Error in debug simple orders: {}", e.getMessage());
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("error", e.getMessage());
-            errorResponse.put("content", new java.util.ArrayList<>());
-            return ResponseEntity.ok(errorResponse);
-        }
+    public ResponseEntity<StreamingResponseBody> getSimpleOrders() {
+        // Streamed row by row so the response does not hold the whole table in memory
+        StreamingResponseBody body = orderExportService::writeSimpleOrdersList;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+    
+    @Operation(summary = "Export orders", description = "Stream all orders as NDJSON (one order per line) or CSV (Admin only)")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(defaultValue = "ndjson") String format) {
+        OrderExportService.Format exportFormat = OrderExportService.Format.parse(format);
+        StreamingResponseBody body = out -> orderExportService.exportOrders(exportFormat, out);
+        
+        boolean csv = exportFormat == OrderExportService.Format.CSV;
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv") : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(csv ? "orders.csv" : "orders.ndjson").build().toString())
+                .body(body);
+    }
+    
+    @Operation(
+        summary = "Order analytics",
+        description = "Order count, revenue, status distribution and payment-type mix per hour or day, read from pre-aggregated rollups (Admin only)"
+    )
+    @GetMapping("/analytics")
+    public ResponseEntity<OrderAnalyticsResponse> getOrderAnalytics(
+            @RequestParam(defaultValue = "day") String granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        OrderRollup.Granularity bucketSize = OrderAnalyticsService.parseGranularity(granularity);
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minus(OrderAnalyticsService.defaultWindow(bucketSize));
+        return ResponseEntity.ok(orderAnalyticsService.getAnalytics(bucketSize, start, end));
+    }
+    
+    @Operation(summary = "Rebuild order analytics", description = "Recompute all analytics rollups from the orders table (Admin only)")
+    @PostMapping("/analytics/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildOrderAnalytics() {
+        int rollups = orderAnalyticsService.rebuild();
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "Order analytics rebuilt");
+        response.put("rollups", rollups);
+        return ResponseEntity.ok(response);
     }
     
     private String calculateEstimatedDelivery(String status) {
@@ -2,6 +2,7 @@ package com.megamart.orderpaymentserver.controller;
 
 import com.megamart.orderpaymentserver.dto.PaymentRequest;
 import com.megamart.orderpaymentserver.dto.OrderResponse;
+import com.megamart.orderpaymentserver.service.PaymentGatewayBulkhead;
 import com.megamart.orderpaymentserver.service.PaymentService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -9,6 +10,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -19,12 +21,26 @@ import java.util.Map;
 public class PaymentController {
     
     private final PaymentService paymentService;
+    private final PaymentGatewayBulkhead paymentGatewayBulkhead;
     
     @PostMapping("/process")
     public ResponseEntity<OrderResponse.Payment> processPayment(@Valid @RequestBody PaymentRequest request) {
         log.info("Processing payment for order: {}", request.getOrderId());
         OrderResponse.Payment paymentResponse = paymentService.processPayment(request);
-        return ResponseEntity.ok(paymentResponse);
+        // The gateway answers asynchronously; the client polls the status endpoint
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/payments/status/" + paymentResponse.getTransactionId()))
+                .body(paymentResponse);
+    }
+    
+    @GetMapping("/status/{transactionId}")
+    public ResponseEntity<Map<String, Object>> getPaymentStatus(@PathVariable String transactionId) {
+        return ResponseEntity.ok(paymentService.getPaymentStatus(transactionId));
+    }
+    
+    @GetMapping("/gateway/stats")
+    public ResponseEntity<Map<String, Object>> getGatewayStats() {
+        return ResponseEntity.ok(paymentGatewayBulkhead.getStats());
     }
     
     @PostMapping("/refund/{orderId}")
@@ -0,0 +1,51 @@
+package com.megamart.orderpaymentserver.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderAnalyticsResponse {
+    
+    private String granularity;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    
+    // Totals over the whole range
+    private Long orderCount;
+    private BigDecimal revenue;
+    private Map<String, Breakdown> statusDistribution;
+    private Map<String, Breakdown> paymentTypeMix;
+    
+    private List<Bucket> buckets;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Bucket {
+        private LocalDateTime bucketStart;
+        private Long orderCount;
+        private BigDecimal revenue;
+        private Map<String, Breakdown> statusDistribution;
+        private Map<String, Breakdown> paymentTypeMix;
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Breakdown {
+        private Long orderCount;
+        private BigDecimal revenue;
+    }
+}
@@ -0,0 +1,24 @@
+package com.megamart.orderpaymentserver.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated order listing. There is no total count;
+ * clients pass nextCursor back to fetch the following page until hasNext is false.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderCursorPage {
+    
+    private List<OrderResponse> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+}
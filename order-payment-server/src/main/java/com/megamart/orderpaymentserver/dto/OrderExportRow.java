@@ -0,0 +1,29 @@
+package com.megamart.orderpaymentserver.dto;
+
+import com.megamart.orderpaymentserver.entity.Order;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * The order columns written by the exports, read straight from the query so no
+ * Order entity (and none of its associations) is loaded per row.
+ */
+public record OrderExportRow(
+        Long id,
+        String userId,
+        BigDecimal total,
+        Order.OrderStatus orderStatus,
+        Order.PaymentType paymentType,
+        Order.PaymentStatus paymentStatus,
+        LocalDateTime orderDate,
+        Long shippingAddressId,
+        String shippingFullName,
+        String shippingAddressLine1,
+        String shippingAddressLine2,
+        String shippingCity,
+        String shippingState,
+        String shippingPostalCode,
+        String shippingCountry,
+        String shippingPhone) {
+}
@@ -0,0 +1,25 @@
+package com.megamart.orderpaymentserver.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filters for the admin order search. Every field is optional; the date range
+ * applies to the order's creation time, from inclusive and to exclusive.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderSearchCriteria {
+    
+    private String status;
+    private String paymentStatus;
+    private String userId;
+    private LocalDateTime from;
+    private LocalDateTime to;
+}
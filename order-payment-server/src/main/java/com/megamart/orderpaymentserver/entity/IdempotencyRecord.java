@@ -0,0 +1,59 @@
+package com.megamart.orderpaymentserver.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of a request made with an Idempotency-Key. The unique key column is
+ * how concurrent duplicates agree on a single executor; once COMPLETED, the
+ * stored response is replayed to retries until the record expires.
+ */
+@Entity
+@Table(name = "idempotency_records",
+       indexes = @Index(name = "idx_idempotency_expires_at", columnList = "expires_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyRecord {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    // Operation scope (including the user) and client-supplied key, e.g. "create-order:42:6f1c..."
+    @Column(name = "idempotency_key", nullable = false, unique = true, length = 200)
+    private String idempotencyKey;
+    
+    // SHA-256 of the request body without payment card fields; a reused key with a different body is rejected
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+    
+    @Lob
+    @Column(name = "response_body")
+    private String responseBody;
+    
+    // An IN_PROGRESS record past this point belongs to an executor that died
+    @Column(name = "locked_until", nullable = false)
+    private LocalDateTime lockedUntil;
+    
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+    
+    // Changes with every write; conditional updates compare it to detect a concurrent writer
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+    
+    public enum Status {
+        IN_PROGRESS, COMPLETED
+    }
+}
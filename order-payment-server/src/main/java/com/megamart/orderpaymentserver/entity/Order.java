@@ -13,7 +13,13 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+    // User order history: WHERE user_id = ? ORDER BY created_at DESC, and its count query
+    @Index(name = "idx_orders_user_created", columnList = "user_id, created_at"),
+    // Admin listing and search, newest first; InnoDB appends id, matching the (created_at, id) seek
+    @Index(name = "idx_orders_created", columnList = "created_at"),
+    @Index(name = "idx_orders_status_created", columnList = "order_status, created_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
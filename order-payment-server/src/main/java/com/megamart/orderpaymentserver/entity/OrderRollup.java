@@ -0,0 +1,64 @@
+package com.megamart.orderpaymentserver.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Pre-aggregated order counters for one time bucket. Each bucket has a TOTAL
+ * row plus one row per order status and per payment type, so the analytics
+ * endpoint reads a handful of rows per bucket instead of scanning orders.
+ * Maintained by OrderAnalyticsService in the transaction that changes the order.
+ */
+@Entity
+@Table(name = "order_rollups",
+       uniqueConstraints = @UniqueConstraint(name = "uk_order_rollup_bucket",
+               columnNames = {"granularity", "bucket_start", "dimension", "dimension_value"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderRollup {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 8)
+    private Granularity granularity;
+    
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Dimension dimension;
+    
+    // ALL for the TOTAL row, otherwise the status or payment type name
+    @Column(name = "dimension_value", nullable = false, length = 32)
+    private String dimensionValue;
+    
+    @Column(name = "order_count", nullable = false)
+    @Builder.Default
+    private Long orderCount = 0L;
+    
+    // Value of the bucket's orders that are not cancelled; on STATUS rows, the
+    // value of the orders currently in that status
+    @Column(nullable = false, precision = 14, scale = 2)
+    @Builder.Default
+    private BigDecimal revenue = BigDecimal.ZERO;
+    
+    public enum Granularity {
+        HOUR, DAY
+    }
+    
+    public enum Dimension {
+        TOTAL, STATUS, PAYMENT_TYPE
+    }
+}
@@ -11,7 +11,8 @@ import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "order_tracking")
+@Table(name = "order_tracking",
+       indexes = @Index(name = "idx_order_tracking_order_created", columnList = "order_id, created_at"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
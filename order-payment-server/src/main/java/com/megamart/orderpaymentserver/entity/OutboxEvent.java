@@ -0,0 +1,86 @@
+package com.megamart.orderpaymentserver.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * A side effect of an order change (stock adjustment, cart clear) that must
+ * reach another service. Written in the same transaction as the order and
+ * delivered afterwards by OutboxDispatcher.
+ */
+@Entity
+@Table(name = "outbox_events",
+       indexes = @Index(name = "idx_outbox_status_next_attempt", columnList = "status, next_attempt_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false)
+    private EventType eventType;
+    
+    // Sent to the receiving service so a redelivered event is applied once
+    @Column(name = "idempotency_key", nullable = false, unique = true, length = 128)
+    private String idempotencyKey;
+    
+    @Column(name = "order_id")
+    private Long orderId;
+    
+    @Column(name = "user_id")
+    private String userId;
+    
+    @Column(name = "product_id")
+    private Long productId;
+    
+    @Column(name = "stock_change")
+    private Integer stockChange;
+    
+    // Set on a release: product-server undoes that key if it was applied, or blocks it if not
+    @Column(name = "reverses_key", length = 128)
+    private String reversesKey;
+    
+    // Comma-separated ids of the cart items an order was placed from; only these are removed from the cart
+    @Column(name = "cart_item_ids", length = 4000)
+    private String cartItemIds;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private Status status = Status.PENDING;
+    
+    @Builder.Default
+    private Integer attempts = 0;
+    
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+    
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+    
+    @CreationTimestamp
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+    
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+    
+    public enum EventType {
+        STOCK_ADJUSTMENT, CART_CLEAR
+    }
+    
+    public enum Status {
+        PENDING, SENT, FAILED
+    }
+}
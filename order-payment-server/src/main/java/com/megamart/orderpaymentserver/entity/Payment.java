@@ -4,7 +4,9 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -12,7 +14,8 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "payments")
+@Table(name = "payments",
+       indexes = @Index(name = "idx_payments_transaction_id", columnList = "transaction_id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -26,8 +29,11 @@ public class Payment {
     @Column(name = "user_id", nullable = false)
     private String userId;
     
+    // Excluded so hashing or printing doesn't recurse back through Order
     @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "order_id", nullable = false)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private Order order;
     
     @Column(name = "payment_method_id")
@@ -0,0 +1,8 @@
+package com.megamart.orderpaymentserver.exception;
+
+public class IdempotencyKeyReusedException extends RuntimeException {
+    
+    public IdempotencyKeyReusedException(String idempotencyKey) {
+        super(String.format("Idempotency-Key '%s' was already used with a different request body", idempotencyKey));
+    }
+}
@@ -0,0 +1,8 @@
+package com.megamart.orderpaymentserver.exception;
+
+public class IdempotentRequestInProgressException extends RuntimeException {
+    
+    public IdempotentRequestInProgressException(String idempotencyKey) {
+        super(String.format("A request with Idempotency-Key '%s' is still being processed, please retry shortly", idempotencyKey));
+    }
+}
@@ -0,0 +1,8 @@
+package com.megamart.orderpaymentserver.exception;
+
+public class PaymentGatewayBusyException extends RuntimeException {
+    
+    public PaymentGatewayBusyException(int maxConcurrent) {
+        super(String.format("Payment gateway is at capacity (%d payments in flight), please retry shortly", maxConcurrent));
+    }
+}
@@ -0,0 +1,51 @@
+package com.megamart.orderpaymentserver.repository;
+
+import com.megamart.orderpaymentserver.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+    
+    Optional<IdempotencyRecord> findByIdempotencyKey(String idempotencyKey);
+    
+    // Succeeds only if the record is still in the state the caller read, so one of several concurrent takeovers wins
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.requestHash = :requestHash, r.status = :newStatus, r.responseBody = NULL, " +
+           "r.lockedUntil = :lockedUntil, r.expiresAt = :expiresAt, r.updatedAt = :now " +
+           "WHERE r.idempotencyKey = :key AND r.status = :status AND r.updatedAt = :updatedAt")
+    int takeOver(@Param("key") String idempotencyKey,
+                 @Param("status") IdempotencyRecord.Status status,
+                 @Param("updatedAt") LocalDateTime updatedAt,
+                 @Param("requestHash") String requestHash,
+                 @Param("newStatus") IdempotencyRecord.Status newStatus,
+                 @Param("lockedUntil") LocalDateTime lockedUntil,
+                 @Param("expiresAt") LocalDateTime expiresAt,
+                 @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.status = :newStatus, r.responseBody = :responseBody, r.updatedAt = :now " +
+           "WHERE r.idempotencyKey = :key AND r.status = :status AND r.updatedAt = :updatedAt")
+    int complete(@Param("key") String idempotencyKey,
+                 @Param("status") IdempotencyRecord.Status status,
+                 @Param("updatedAt") LocalDateTime updatedAt,
+                 @Param("newStatus") IdempotencyRecord.Status newStatus,
+                 @Param("responseBody") String responseBody,
+                 @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.idempotencyKey = :key AND r.status = :status AND r.updatedAt = :updatedAt")
+    int deleteClaim(@Param("key") String idempotencyKey,
+                    @Param("status") IdempotencyRecord.Status status,
+                    @Param("updatedAt") LocalDateTime updatedAt);
+    
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
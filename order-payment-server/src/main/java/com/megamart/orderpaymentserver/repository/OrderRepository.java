@@ -1,18 +1,26 @@
 package com.megamart.orderpaymentserver.repository;
 
+import com.megamart.orderpaymentserver.dto.OrderExportRow;
 import com.megamart.orderpaymentserver.entity.Order;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order> {
+    
+    String EXPORT_FETCH_SIZE = "500";
     
     Page<Order> findByUserIdOrderByCreatedAtDesc(String userId, Pageable pageable);
     
@@ -25,4 +33,20 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByUserIdWithDetails(@Param("userId") String userId);
     
     Page<Order> findAllByOrderByCreatedAtDesc(Pageable pageable);
+    
+    // Rows are pulled from the driver in chunks of EXPORT_FETCH_SIZE instead of being
+    // materialized up front; the caller must consume the stream inside a transaction.
+    // A column projection, so the payment (an eager inverse one-to-one) is never loaded.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query("SELECT new com.megamart.orderpaymentserver.dto.OrderExportRow(o.id, o.userId, o.total, o.orderStatus, "
+            + "o.paymentType, o.paymentStatus, o.orderDate, o.shippingAddressId, o.shippingFullName, "
+            + "o.shippingAddressLine1, o.shippingAddressLine2, o.shippingCity, o.shippingState, "
+            + "o.shippingPostalCode, o.shippingCountry, o.shippingPhone) FROM Order o ORDER BY o.id")
+    Stream<OrderExportRow> streamAllForExport();
+    
+    // Only the columns the analytics rollups are built from: orderDate, createdAt,
+    // orderStatus, paymentType, total
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query("SELECT o.orderDate, o.createdAt, o.orderStatus, o.paymentType, o.total FROM Order o")
+    Stream<Object[]> streamForAnalytics();
 } 
@@ -0,0 +1,15 @@
+package com.megamart.orderpaymentserver.repository;
+
+import com.megamart.orderpaymentserver.entity.OrderRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OrderRollupRepository extends JpaRepository<OrderRollup, Long>, OrderRollupRepositoryCustom {
+    
+    List<OrderRollup> findByGranularityAndBucketStartBetweenOrderByBucketStart(
+            OrderRollup.Granularity granularity, LocalDateTime from, LocalDateTime to);
+}
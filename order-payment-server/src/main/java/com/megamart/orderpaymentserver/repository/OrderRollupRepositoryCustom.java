@@ -0,0 +1,15 @@
+package com.megamart.orderpaymentserver.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public interface OrderRollupRepositoryCustom {
+    
+    /**
+     * Adds the deltas to one rollup row, creating it if the bucket has none yet.
+     * A single statement, so concurrent orders landing in the same bucket add to
+     * the row under its lock instead of racing to insert it or losing an update.
+     */
+    void increment(String granularity, LocalDateTime bucketStart, String dimension, String dimensionValue,
+                   long countDelta, BigDecimal revenueDelta);
+}
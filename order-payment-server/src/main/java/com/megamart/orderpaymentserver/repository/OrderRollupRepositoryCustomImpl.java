@@ -0,0 +1,46 @@
+package com.megamart.orderpaymentserver.repository;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+class OrderRollupRepositoryCustomImpl implements OrderRollupRepositoryCustom {
+    
+    private static final String INSERT = "INSERT INTO order_rollups "
+            + "(granularity, bucket_start, dimension, dimension_value, order_count, revenue) "
+            + "VALUES (:granularity, :bucketStart, :dimension, :dimensionValue, :countDelta, :revenueDelta) ";
+    
+    // MySQL 8.0.19+ row alias; replaces VALUES(col), which is deprecated
+    private static final String MYSQL_UPSERT = INSERT
+            + "AS new ON DUPLICATE KEY UPDATE order_count = order_count + new.order_count, revenue = revenue + new.revenue";
+    
+    // H2 (tests) cannot parse the row alias, so the deltas are bound again instead
+    private static final String PORTABLE_UPSERT = INSERT
+            + "ON DUPLICATE KEY UPDATE order_count = order_count + :countDelta, revenue = revenue + :revenueDelta";
+    
+    private final EntityManager entityManager;
+    private final String upsert;
+    
+    OrderRollupRepositoryCustomImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+        boolean mysql = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect() instanceof MySQLDialect;
+        this.upsert = mysql ? MYSQL_UPSERT : PORTABLE_UPSERT;
+    }
+    
+    @Override
+    public void increment(String granularity, LocalDateTime bucketStart, String dimension, String dimensionValue,
+                          long countDelta, BigDecimal revenueDelta) {
+        entityManager.createNativeQuery(upsert)
+                .setParameter("granularity", granularity)
+                .setParameter("bucketStart", bucketStart)
+                .setParameter("dimension", dimension)
+                .setParameter("dimensionValue", dimensionValue)
+                .setParameter("countDelta", countDelta)
+                .setParameter("revenueDelta", revenueDelta)
+                .executeUpdate();
+    }
+}
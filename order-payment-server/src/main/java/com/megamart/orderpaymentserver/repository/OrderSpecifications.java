@@ -0,0 +1,36 @@
+package com.megamart.orderpaymentserver.repository;
+
+import com.megamart.orderpaymentserver.entity.Order;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+
+/**
+ * Building blocks for the admin order search. Each returns null when its
+ * filter is absent, which Specification.allOf ignores.
+ */
+public final class OrderSpecifications {
+    
+    private OrderSpecifications() {
+    }
+    
+    public static Specification<Order> hasStatus(Order.OrderStatus status) {
+        return status == null ? null : (root, query, cb) -> cb.equal(root.get("orderStatus"), status);
+    }
+    
+    public static Specification<Order> hasPaymentStatus(Order.PaymentStatus paymentStatus) {
+        return paymentStatus == null ? null : (root, query, cb) -> cb.equal(root.get("paymentStatus"), paymentStatus);
+    }
+    
+    public static Specification<Order> hasUserId(String userId) {
+        return userId == null || userId.isBlank() ? null : (root, query, cb) -> cb.equal(root.get("userId"), userId);
+    }
+    
+    public static Specification<Order> createdFrom(LocalDateTime from) {
+        return from == null ? null : (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("createdAt"), from);
+    }
+    
+    public static Specification<Order> createdBefore(LocalDateTime to) {
+        return to == null ? null : (root, query, cb) -> cb.lessThan(root.get("createdAt"), to);
+    }
+}
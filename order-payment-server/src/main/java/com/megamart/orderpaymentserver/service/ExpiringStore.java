@@ -0,0 +1,160 @@
+package com.megamart.orderpaymentserver.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded, thread-safe key-value store whose entries expire a fixed time
+ * after they are written. Reads and writes go straight to a
+ * ConcurrentHashMap, and every writer helps drop expired and over-capacity
+ * entries, oldest first, from a lock-free write-order queue. No caller ever
+ * waits on another, including one that was descheduled mid-cleanup. The size
+ * bound is soft: it can be overshot by the number of writers in flight.
+ */
+public class ExpiringStore<K, V> {
+
+    private final ConcurrentHashMap<K, Entry<K, V>> entries = new ConcurrentHashMap<>();
+    // Entries in write order; with a single TTL this is also expiry order
+    private final ConcurrentLinkedQueue<Entry<K, V>> writeOrder = new ConcurrentLinkedQueue<>();
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier ticker;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ExpiringStore(int maxSize, Duration ttl) {
+        this(maxSize, ttl, System::nanoTime);
+    }
+
+    ExpiringStore(int maxSize, Duration ttl, LongSupplier ticker) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.ticker = ticker;
+    }
+
+    public V get(K key) {
+        Entry<K, V> entry = entries.get(key);
+        if (entry != null && entry.isExpired(ticker.getAsLong())) {
+            if (entries.remove(key, entry)) {
+                expirations.increment();
+            }
+            entry = null;
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value;
+    }
+
+    public void put(K key, V value) {
+        Entry<K, V> entry = new Entry<>(key, value, ticker.getAsLong() + ttlNanos);
+        entries.put(key, entry);
+        writeOrder.add(entry);
+        writes.increment();
+        cleanUp();
+    }
+
+    /**
+     * Drops expired entries and, while over capacity, the oldest live ones.
+     * Safe to run from any number of threads at once.
+     */
+    public void cleanUp() {
+        long now = ticker.getAsLong();
+        while (true) {
+            Entry<K, V> head = writeOrder.peek();
+            if (head == null || (isCurrent(head) && !head.isExpired(now) && entries.size() <= maxSize)) {
+                return;
+            }
+            // Judge the entry actually taken: a concurrent cleaner may have taken the head first
+            Entry<K, V> taken = writeOrder.poll();
+            if (taken == null) {
+                return;
+            }
+            if (!isCurrent(taken)) {
+                continue;
+            }
+            if (taken.isExpired(now)) {
+                if (entries.remove(taken.key, taken)) {
+                    expirations.increment();
+                }
+            } else if (entries.size() > maxSize) {
+                if (entries.remove(taken.key, taken)) {
+                    evictions.increment();
+                }
+            } else {
+                // Lost a race and took an entry that should stay; keep tracking it
+                writeOrder.add(taken);
+                return;
+            }
+        }
+    }
+
+    // False once the key was rewritten or removed; the queued entry is then just dropped
+    private boolean isCurrent(Entry<K, V> entry) {
+        return entries.get(entry.key) == entry;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("size", size());
+        stats.put("maxSize", maxSize);
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("writes", writes.sum());
+        stats.put("expirations", expirations.sum());
+        stats.put("evictions", evictions.sum());
+        return stats;
+    }
+
+    /**
+     * Publishes size and hit/miss/eviction counts as store.* meters tagged
+     * with the store's name.
+     */
+    public void bindTo(MeterRegistry registry, String name) {
+        Gauge.builder("store.size", this, ExpiringStore::size).tag("store", name).register(registry);
+        Gauge.builder("store.max.size", this, store -> store.maxSize).tag("store", name).register(registry);
+        FunctionCounter.builder("store.requests", hits, LongAdder::sum).tags("store", name, "result", "hit").register(registry);
+        FunctionCounter.builder("store.requests", misses, LongAdder::sum).tags("store", name, "result", "miss").register(registry);
+        FunctionCounter.builder("store.removals", expirations, LongAdder::sum).tags("store", name, "cause", "expired").register(registry);
+        FunctionCounter.builder("store.removals", evictions, LongAdder::sum).tags("store", name, "cause", "size").register(registry);
+    }
+
+    // Compared by identity, so a rewritten key never matches its older entry
+    private static final class Entry<K, V> {
+        private final K key;
+        private final V value;
+        private final long expiresAt;
+
+        private Entry(K key, V value, long expiresAt) {
+            this.key = key;
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+}
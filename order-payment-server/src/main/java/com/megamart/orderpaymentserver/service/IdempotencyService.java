@@ -0,0 +1,264 @@
+package com.megamart.orderpaymentserver.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.megamart.orderpaymentserver.entity.IdempotencyRecord;
+import com.megamart.orderpaymentserver.exception.IdempotencyKeyReusedException;
+import com.megamart.orderpaymentserver.exception.IdempotentRequestInProgressException;
+import com.megamart.orderpaymentserver.exception.InvalidRequestException;
+import com.megamart.orderpaymentserver.repository.IdempotencyRecordRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Makes retried requests carrying an Idempotency-Key run at most once. The
+ * first request claims the key by inserting an IN_PROGRESS record; duplicates
+ * arriving while it runs wait for it (on this instance, without polling) and
+ * then replay its stored response. A failed request releases the key so the
+ * client can retry it.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 128;
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(100);
+    // Card data is not stored, not even hashed; a retry differing only in these fields replays the first response
+    private static final Set<String> UNHASHED_FIELDS = Set.of("cardNumber", "cardholderName", "expiryMonth", "expiryYear", "cvv");
+
+    private final IdempotencyRecordRepository recordRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration lease;
+    private final Duration waitTimeout;
+
+    // Requests this instance is executing, so local duplicates are woken when they finish
+    private final Map<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyRecordRepository recordRepository,
+                              TransactionTemplate transactionTemplate,
+                              ObjectMapper objectMapper,
+                              @Value("${idempotency.ttl:PT24H}") Duration ttl,
+                              @Value("${idempotency.lease:PT2M}") Duration lease,
+                              @Value("${idempotency.wait-timeout:PT10S}") Duration waitTimeout) {
+        this.recordRepository = recordRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.lease = lease;
+        this.waitTimeout = waitTimeout;
+    }
+
+    public record Result<T>(T body, boolean replayed) {
+    }
+
+    /**
+     * Runs the action once per (scope, key). Without a key the action simply
+     * runs. A retry with the same key and request gets the first call's
+     * response; the same key with a different request is rejected.
+     */
+    public <T> Result<T> execute(String scope, String idempotencyKey, Object request,
+                                 Class<T> responseType, Supplier<T> action) {
+        if (idempotencyKey == null) {
+            return new Result<>(action.get(), false);
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new InvalidRequestException(HEADER, "Must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String key = scope + ":" + idempotencyKey;
+        String requestHash = hash(request);
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+        while (true) {
+            Claim claim;
+            try {
+                claim = claim(key, requestHash);
+            } catch (DataIntegrityViolationException e) {
+                // Another request inserted the key first; read its record on the next pass
+                continue;
+            }
+            if (claim.claimedAt() != null) {
+                return new Result<>(runClaimed(key, idempotencyKey, claim.claimedAt(), action), false);
+            }
+            IdempotencyRecord existing = claim.holder();
+            if (existing == null) {
+                // Another request took the stale record over first; read it on the next pass
+                continue;
+            }
+            if (!existing.getRequestHash().equals(requestHash)) {
+                throw new IdempotencyKeyReusedException(idempotencyKey);
+            }
+            if (existing.getStatus() == IdempotencyRecord.Status.COMPLETED) {
+                log.info("Replaying response for {}", key);
+                return new Result<>(read(existing.getResponseBody(), responseType), true);
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                throw new IdempotentRequestInProgressException(idempotencyKey);
+            }
+            awaitInFlight(key, remaining);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval:PT10M}")
+    public void purgeExpired() {
+        Integer purged = transactionTemplate.execute(status -> recordRepository.deleteExpired(LocalDateTime.now()));
+        if (purged != null && purged > 0) {
+            log.info("Purged {} expired idempotency records", purged);
+        }
+    }
+
+    /**
+     * Either claimedAt is set and this call now owns the key, or holder is the
+     * live record that holds it. Neither is set when a concurrent request took
+     * over the same stale record first.
+     */
+    private record Claim(LocalDateTime claimedAt, IdempotencyRecord holder) {
+    }
+
+    /**
+     * Inserts the key, or takes over an expired record or an IN_PROGRESS
+     * record whose lease ran out. The takeover is a conditional UPDATE on the
+     * state that was read, so only one of several concurrent takeovers wins.
+     */
+    private Claim claim(String key, String requestHash) {
+        return transactionTemplate.execute(status -> {
+            // Millisecond precision survives the round trip through the database, so updatedAt compares equal
+            LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+            IdempotencyRecord existing = recordRepository.findByIdempotencyKey(key).orElse(null);
+            if (existing == null) {
+                recordRepository.saveAndFlush(IdempotencyRecord.builder()
+                        .idempotencyKey(key)
+                        .requestHash(requestHash)
+                        .status(IdempotencyRecord.Status.IN_PROGRESS)
+                        .lockedUntil(now.plus(lease))
+                        .expiresAt(now.plus(ttl))
+                        .updatedAt(now)
+                        .build());
+                return new Claim(now, null);
+            }
+            if (!isStale(existing, now)) {
+                return new Claim(null, existing);
+            }
+            int taken = recordRepository.takeOver(key, existing.getStatus(), existing.getUpdatedAt(), requestHash,
+                    IdempotencyRecord.Status.IN_PROGRESS, now.plus(lease), now.plus(ttl), now);
+            return taken == 1 ? new Claim(now, null) : new Claim(null, null);
+        });
+    }
+
+    private boolean isStale(IdempotencyRecord record, LocalDateTime now) {
+        return record.getExpiresAt().isBefore(now)
+                || (record.getStatus() == IdempotencyRecord.Status.IN_PROGRESS && record.getLockedUntil().isBefore(now));
+    }
+
+    /**
+     * Runs the action and marks the record COMPLETED in one transaction, so the
+     * order and its stored response commit together. If the lease ran out and
+     * another request took the key over, the action is rolled back and that
+     * request's result stands.
+     */
+    private <T> T runClaimed(String key, String idempotencyKey, LocalDateTime claimedAt, Supplier<T> action) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        inFlight.put(key, done);
+        try {
+            return transactionTemplate.execute(status -> {
+                T response = action.get();
+                int completed = recordRepository.complete(key, IdempotencyRecord.Status.IN_PROGRESS, claimedAt,
+                        IdempotencyRecord.Status.COMPLETED, write(response),
+                        LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS));
+                if (completed == 0) {
+                    log.warn("Lease on {} ran out before the request finished; rolling it back", key);
+                    throw new IdempotentRequestInProgressException(idempotencyKey);
+                }
+                return response;
+            });
+        } catch (IdempotentRequestInProgressException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            // Nothing was created, so a retry with this key should run again
+            transactionTemplate.executeWithoutResult(status -> recordRepository.deleteClaim(
+                    key, IdempotencyRecord.Status.IN_PROGRESS, claimedAt));
+            throw e;
+        } finally {
+            inFlight.remove(key, done);
+            done.complete(null);
+        }
+    }
+
+    private void awaitInFlight(String key, long remainingNanos) {
+        CompletableFuture<Void> local = inFlight.get(key);
+        try {
+            if (local != null) {
+                local.get(remainingNanos, TimeUnit.NANOSECONDS);
+            } else {
+                // Being executed by another instance
+                Thread.sleep(Math.min(POLL_INTERVAL.toMillis(), TimeUnit.NANOSECONDS.toMillis(remainingNanos) + 1));
+            }
+        } catch (TimeoutException | ExecutionException e) {
+            // Re-read the record; the deadline check decides what happens next
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotentRequestInProgressException(key);
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            JsonNode canonical = objectMapper.valueToTree(request);
+            removeUnhashedFields(canonical);
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(canonical)));
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Unable to hash request", e);
+        }
+    }
+
+    private static void removeUnhashedFields(JsonNode node) {
+        if (node instanceof ObjectNode object) {
+            object.remove(UNHASHED_FIELDS);
+        }
+        node.forEach(IdempotencyService::removeUnhashedFields);
+    }
+
+    private String write(Object response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to store idempotent response", e);
+        }
+    }
+
+    private <T> T read(String body, Class<T> responseType) {
+        try {
+            return objectMapper.readValue(body, responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to replay idempotent response", e);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.megamart.orderpaymentserver.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Read-through cache for lookups against another service. Found values are
+ * kept for the TTL, confirmed absences (loader returned empty, e.g. a 404)
+ * for the shorter negative TTL, and failures are not cached at all.
+ * Concurrent misses on the same key share a single load.
+ */
+public class LookupCache<K, V> {
+
+    private final ExpiringStore<K, V> values;
+    private final ExpiringStore<K, Boolean> absent;
+    private final Map<K, CompletableFuture<Optional<V>>> loading = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+
+    public LookupCache(int maxSize, Duration ttl, Duration negativeTtl) {
+        this(maxSize, ttl, negativeTtl, System::nanoTime);
+    }
+
+    LookupCache(int maxSize, Duration ttl, Duration negativeTtl, LongSupplier ticker) {
+        this.values = new ExpiringStore<>(maxSize, ttl, ticker);
+        this.absent = new ExpiringStore<>(maxSize, negativeTtl, ticker);
+    }
+
+    /**
+     * Returns the cached value, or loads it. Null means the loader reported
+     * the key as absent; exceptions thrown by the loader reach every caller
+     * waiting on that load.
+     */
+    public V get(K key, Function<K, Optional<V>> loader) {
+        V cached = values.get(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        if (absent.get(key) != null) {
+            negativeHits.increment();
+            return null;
+        }
+
+        CompletableFuture<Optional<V>> load = new CompletableFuture<>();
+        CompletableFuture<Optional<V>> inFlight = loading.putIfAbsent(key, load);
+        if (inFlight != null) {
+            coalesced.increment();
+            try {
+                return inFlight.join().orElse(null);
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        misses.increment();
+        try {
+            Optional<V> result = loader.apply(key);
+            if (result.isPresent()) {
+                values.put(key, result.get());
+            } else {
+                absent.put(key, Boolean.TRUE);
+            }
+            load.complete(result);
+            return result.orElse(null);
+        } catch (RuntimeException e) {
+            loadFailures.increment();
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, load);
+        }
+    }
+
+    /**
+     * Returns the cached value without loading it, or null. For callers that
+     * load misses themselves, e.g. in one batch request, and put the results.
+     */
+    public V getIfPresent(K key) {
+        V cached = values.get(key);
+        if (cached != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return cached;
+    }
+
+    public void put(K key, V value) {
+        values.put(key, value);
+    }
+
+    public int size() {
+        return values.size() + absent.size();
+    }
+
+    public Map<String, Object> getStats() {
+        long requests = hits.sum() + negativeHits.sum() + misses.sum() + coalesced.sum();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("size", size());
+        stats.put("hits", hits.sum());
+        stats.put("negativeHits", negativeHits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("coalesced", coalesced.sum());
+        stats.put("loadFailures", loadFailures.sum());
+        stats.put("hitRate", requests == 0 ? 0.0 : (double) (hits.sum() + negativeHits.sum()) / requests);
+        return stats;
+    }
+
+    /**
+     * Publishes cache.gets (by result), cache.load.failures and cache.size,
+     * tagged with the cache's name.
+     */
+    public void bindTo(MeterRegistry registry, String name) {
+        Gauge.builder("cache.size", this, LookupCache::size).tag("cache", name).register(registry);
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum).tags("cache", name, "result", "hit").register(registry);
+        FunctionCounter.builder("cache.gets", negativeHits, LongAdder::sum).tags("cache", name, "result", "negative-hit").register(registry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum).tags("cache", name, "result", "miss").register(registry);
+        FunctionCounter.builder("cache.gets", coalesced, LongAdder::sum).tags("cache", name, "result", "coalesced").register(registry);
+        FunctionCounter.builder("cache.load.failures", loadFailures, LongAdder::sum).tag("cache", name).register(registry);
+    }
+}
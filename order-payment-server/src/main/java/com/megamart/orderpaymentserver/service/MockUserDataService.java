@@ -1,59 +1,82 @@
 package com.megamart.orderpaymentserver.service;
 
+import com.megamart.orderpaymentserver.client.ServiceGuard;
+import com.megamart.orderpaymentserver.client.ServiceGuards;
 import com.megamart.orderpaymentserver.dto.OrderRequest;
 import com.megamart.orderpaymentserver.dto.OrderResponse;
 import com.megamart.orderpaymentserver.exception.AddressNotFoundException;
 import com.megamart.orderpaymentserver.exception.PaymentMethodNotFoundException;
 import com.megamart.orderpaymentserver.exception.ValidationException;
 import com.megamart.orderpaymentserver.service.interfaces.UserDataServiceInterface;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 public class MockUserDataService implements UserDataServiceInterface {
     
-    private final Map<Long, OrderResponse.Address> addresses = new HashMap<>();
-    private final Map<Long, OrderResponse.PaymentMethod> paymentMethods = new HashMap<>();
+    // Shared by all request threads and written on every checkout, so bounded and thread-safe
+    private final ExpiringStore<Long, OrderResponse.Address> addresses;
+    private final ExpiringStore<Long, OrderResponse.PaymentMethod> paymentMethods;
+    // Addresses fetched from user-admin, so order reads don't call it every time.
+    // Keyed by owner as well, so one user's address is never served to another
+    private final LookupCache<AddressKey, OrderResponse.Address> remoteAddresses;
+    private final ServiceGuard userAdmin;
     private final AtomicLong addressIdCounter = new AtomicLong(1);
     private final AtomicLong paymentMethodIdCounter = new AtomicLong(1);
     
     @Autowired
     private RestTemplate restTemplate;
     
-    private static final String USER_SERVICE_URL = "http://localhost:9094/api";
+    private static final String USER_SERVICE_URL = "http://user-admin-server/api";
     
-    public MockUserDataService() {
+    public MockUserDataService(@Value("${user-data.store.max-size:100000}") int maxSize,
+                               @Value("${user-data.store.ttl:PT24H}") Duration ttl,
+                               @Value("${user-data.cache.max-size:10000}") int cacheMaxSize,
+                               @Value("${user-data.cache.ttl:PT5M}") Duration cacheTtl,
+                               @Value("${user-data.cache.negative-ttl:PT30S}") Duration cacheNegativeTtl,
+                               ServiceGuards serviceGuards) {
+        this.addresses = new ExpiringStore<>(maxSize, ttl);
+        this.paymentMethods = new ExpiringStore<>(maxSize, ttl);
+        this.remoteAddresses = new LookupCache<>(cacheMaxSize, cacheTtl, cacheNegativeTtl);
+        this.userAdmin = serviceGuards.forService("user-admin-server");
         loadSampleData();
     }
     
+    @Autowired
+    void bindMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+        meterRegistry.ifAvailable(registry -> {
+            addresses.bindTo(registry, "user-data.addresses");
+            paymentMethods.bindTo(registry, "user-data.payment-methods");
+            remoteAddresses.bindTo(registry, "user-admin.addresses");
+        });
+    }
+
+    
     @Override
     public OrderResponse.Address getAddress(String userId, Long addressId) {
         try {
-            // Try to fetch from user-admin service first
-            Map<String, Object> response = restTemplate.getForObject(
-                USER_SERVICE_URL + "/addresses/" + addressId, 
-                Map.class
-            );
-            
-            if (response != null) {
-                return OrderResponse.Address.builder()
-                        .id(Long.valueOf(response.get("id").toString()))
-                        .fullName((String) response.get("fullName"))
-                        .addressLine1((String) response.get("addressLine1"))
-                        .addressLine2((String) response.get("addressLine2"))
-                        .city((String) response.get("city"))
-                        .state((String) response.get("state"))
-                        .postalCode((String) response.get("postalCode"))
-                        .country((String) response.get("country"))
-                        .phone((String) response.get("phone"))
-                        .build();
+            // Try the user-admin service first, through the cache
+            OrderResponse.Address address = remoteAddresses.get(new AddressKey(userId, addressId), this::fetchAddress);
+            if (address != null) {
+                return address;
             }
         } catch (Exception e) {
             log.error("Failed to fetch address from user service: {}", e.getMessage());
@@ -67,6 +90,56 @@ public class MockUserDataService implements UserDataServiceInterface {
         return address;
     }
     
+    @Override
+    public Map<Long, OrderResponse.Address> getAddresses(String userId, Collection<Long> addressIds) {
+        Map<Long, OrderResponse.Address> result = new HashMap<>();
+        for (Long addressId : addressIds) {
+            OrderResponse.Address cached = remoteAddresses.getIfPresent(new AddressKey(userId, addressId));
+            if (cached != null) {
+                result.put(addressId, cached);
+            }
+        }
+        List<Long> missing = addressIds.stream().filter(id -> !result.containsKey(id)).toList();
+        if (missing.isEmpty()) {
+            return result;
+        }
+        try {
+            // One request for the whole batch instead of one per address
+            String ids = missing.stream().map(String::valueOf).collect(Collectors.joining(","));
+            List<Map<String, Object>> response = userAdmin.call(() -> restTemplate.exchange(
+                USER_SERVICE_URL + "/users/" + userId + "/addresses?ids=" + ids,
+                HttpMethod.GET, null, new ParameterizedTypeReference<List<Map<String, Object>>>() {}
+            ).getBody());
+            
+            if (response != null) {
+                for (Map<String, Object> entry : response) {
+                    // user-admin only returns the user's own addresses; don't trust that blindly
+                    if (!ownedBy(entry, userId)) {
+                        continue;
+                    }
+                    OrderResponse.Address address = toAddress(entry);
+                    if (missing.contains(address.getId())) {
+                        remoteAddresses.put(new AddressKey(userId, address.getId()), address);
+                        result.put(address.getId(), address);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.error("Failed to fetch addresses from user service: {}", e.getMessage());
+        }
+        
+        // Fall back to local storage for anything the user service did not return
+        for (Long addressId : missing) {
+            if (!result.containsKey(addressId)) {
+                OrderResponse.Address address = addresses.get(addressId);
+                if (address != null) {
+                    result.put(addressId, address);
+                }
+            }
+        }
+        return result;
+    }
+    
     @Override
     public OrderResponse.Address createAddress(String userId, OrderRequest.Address address) {
         validateAddress(address);
@@ -101,6 +174,18 @@ public class MockUserDataService implements UserDataServiceInterface {
         return paymentMethod;
     }
     
+    @Override
+    public Map<Long, OrderResponse.PaymentMethod> getPaymentMethods(String userId, Collection<Long> paymentMethodIds) {
+        Map<Long, OrderResponse.PaymentMethod> result = new HashMap<>();
+        for (Long paymentMethodId : paymentMethodIds) {
+            OrderResponse.PaymentMethod paymentMethod = paymentMethods.get(paymentMethodId);
+            if (paymentMethod != null) {
+                result.put(paymentMethodId, paymentMethod);
+            }
+        }
+        return result;
+    }
+    
     @Override
     public OrderResponse.PaymentMethod createPaymentMethod(String userId, OrderRequest.PaymentMethod paymentMethod) {
         validatePaymentMethod(paymentMethod);
@@ -122,6 +207,40 @@ public class MockUserDataService implements UserDataServiceInterface {
         return newPaymentMethod;
     }
     
+    // Empty on 404 so the absence is cached; other failures propagate and are not
+    private Optional<OrderResponse.Address> fetchAddress(AddressKey key) {
+        try {
+            Map<String, Object> response = userAdmin.call(() -> restTemplate.getForObject(
+                USER_SERVICE_URL + "/users/" + key.userId() + "/addresses/" + key.addressId(),
+                Map.class
+            ));
+            return Optional.ofNullable(response)
+                    .filter(entry -> ownedBy(entry, key.userId()))
+                    .map(this::toAddress);
+        } catch (HttpClientErrorException.NotFound e) {
+            return Optional.empty();
+        }
+    }
+    
+    private static boolean ownedBy(Map<String, Object> response, String userId) {
+        Object owner = response.get("userId");
+        return owner == null || owner.toString().equals(userId);
+    }
+    
+    private OrderResponse.Address toAddress(Map<String, Object> response) {
+        return OrderResponse.Address.builder()
+                .id(Long.valueOf(response.get("id").toString()))
+                .fullName((String) response.get("fullName"))
+                .addressLine1((String) response.get("addressLine1"))
+                .addressLine2((String) response.get("addressLine2"))
+                .city((String) response.get("city"))
+                .state((String) response.get("state"))
+                .postalCode((String) response.get("postalCode"))
+                .country((String) response.get("country"))
+                .phone((String) response.get("phone"))
+                .build();
+    }
+    
     private void validateAddress(OrderRequest.Address address) {
         if (address.getPhone() == null || !address.getPhone().matches("^[0-9]{10}$")) {
             throw new ValidationException("phone", "Phone number must be exactly 10 digits");
@@ -180,4 +299,7 @@ public class MockUserDataService implements UserDataServiceInterface {
         
         log.info("Loaded sample data");
     }
-} 
+    
+    private record AddressKey(String userId, Long addressId) {
+    }
+}
@@ -0,0 +1,262 @@
+package com.megamart.orderpaymentserver.service;
+
+import com.megamart.orderpaymentserver.dto.OrderAnalyticsResponse;
+import com.megamart.orderpaymentserver.entity.Order;
+import com.megamart.orderpaymentserver.entity.OrderRollup;
+import com.megamart.orderpaymentserver.exception.InvalidRequestException;
+import com.megamart.orderpaymentserver.repository.OrderRepository;
+import com.megamart.orderpaymentserver.repository.OrderRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Maintains hourly and daily order rollups incrementally and answers the
+ * analytics dashboard from them. The record methods must be called inside the
+ * transaction that changes the order, so the counters commit or roll back with it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(propagation = Propagation.MANDATORY)
+public class OrderAnalyticsService {
+    
+    static final String ALL = "ALL";
+    static final String UNKNOWN = "UNKNOWN";
+    private static final int MAX_BUCKETS = 2000;
+    
+    private final OrderRollupRepository rollupRepository;
+    private final OrderRepository orderRepository;
+    
+    public void recordCreated(Order order) {
+        apply(order, order.getOrderStatus(), 1);
+    }
+    
+    public void recordDeleted(Order order) {
+        apply(order, order.getOrderStatus(), -1);
+    }
+    
+    /**
+     * Moves the order from its previous status to its current one. Revenue only
+     * changes when the order enters or leaves CANCELLED.
+     */
+    public void recordStatusChange(Order order, Order.OrderStatus previousStatus) {
+        Order.OrderStatus currentStatus = order.getOrderStatus();
+        if (previousStatus == currentStatus) {
+            return;
+        }
+        BigDecimal total = totalOf(order);
+        BigDecimal revenueDelta = revenueOf(total, currentStatus).subtract(revenueOf(total, previousStatus));
+        LocalDateTime time = bucketTime(order);
+        
+        increment(time, OrderRollup.Dimension.STATUS, nameOf(previousStatus), -1, total.negate());
+        increment(time, OrderRollup.Dimension.STATUS, nameOf(currentStatus), 1, total);
+        increment(time, OrderRollup.Dimension.TOTAL, ALL, 0, revenueDelta);
+        increment(time, OrderRollup.Dimension.PAYMENT_TYPE, nameOf(order.getPaymentType()), 0, revenueDelta);
+    }
+    
+    public static OrderRollup.Granularity parseGranularity(String value) {
+        try {
+            return OrderRollup.Granularity.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("granularity", "Unsupported granularity: " + value + ". Use hour or day");
+        }
+    }
+    
+    /**
+     * Default window when the caller gives no range: the last 48 hours for
+     * hourly buckets, the last 30 days for daily ones.
+     */
+    public static Duration defaultWindow(OrderRollup.Granularity granularity) {
+        return granularity == OrderRollup.Granularity.HOUR ? Duration.ofHours(48) : Duration.ofDays(30);
+    }
+    
+    @Transactional(readOnly = true)
+    public OrderAnalyticsResponse getAnalytics(OrderRollup.Granularity granularity, LocalDateTime from, LocalDateTime to) {
+        if (from.isAfter(to)) {
+            throw new InvalidRequestException("range", "'from' must not be after 'to'");
+        }
+        LocalDateTime start = truncate(from, granularity);
+        long buckets = Duration.between(start, to).dividedBy(unitOf(granularity).getDuration()) + 1;
+        if (buckets > MAX_BUCKETS) {
+            throw new InvalidRequestException("range",
+                    "At most " + MAX_BUCKETS + " " + granularity.name().toLowerCase() + " buckets can be requested");
+        }
+        
+        List<OrderRollup> rows = rollupRepository.findByGranularityAndBucketStartBetweenOrderByBucketStart(granularity, start, to);
+        
+        Map<LocalDateTime, OrderAnalyticsResponse.Bucket> byStart = new TreeMap<>();
+        OrderAnalyticsResponse.Breakdown overall = breakdown();
+        Map<String, OrderAnalyticsResponse.Breakdown> statusTotals = new TreeMap<>();
+        Map<String, OrderAnalyticsResponse.Breakdown> paymentTypeTotals = new TreeMap<>();
+        for (OrderRollup row : rows) {
+            // Left behind when every order counted in the row moved to another status
+            if (row.getOrderCount() == 0 && row.getRevenue().signum() == 0) {
+                continue;
+            }
+            OrderAnalyticsResponse.Bucket bucket = byStart.computeIfAbsent(row.getBucketStart(), OrderAnalyticsService::emptyBucket);
+            switch (row.getDimension()) {
+                case TOTAL -> {
+                    bucket.setOrderCount(bucket.getOrderCount() + row.getOrderCount());
+                    bucket.setRevenue(bucket.getRevenue().add(row.getRevenue()));
+                    add(overall, row);
+                }
+                case STATUS -> {
+                    add(bucket.getStatusDistribution().computeIfAbsent(row.getDimensionValue(), k -> breakdown()), row);
+                    add(statusTotals.computeIfAbsent(row.getDimensionValue(), k -> breakdown()), row);
+                }
+                case PAYMENT_TYPE -> {
+                    add(bucket.getPaymentTypeMix().computeIfAbsent(row.getDimensionValue(), k -> breakdown()), row);
+                    add(paymentTypeTotals.computeIfAbsent(row.getDimensionValue(), k -> breakdown()), row);
+                }
+            }
+        }
+        
+        return OrderAnalyticsResponse.builder()
+                .granularity(granularity.name())
+                .from(start)
+                .to(to)
+                .orderCount(overall.getOrderCount())
+                .revenue(overall.getRevenue())
+                .statusDistribution(statusTotals)
+                .paymentTypeMix(paymentTypeTotals)
+                .buckets(new ArrayList<>(byStart.values()))
+                .build();
+    }
+    
+    /**
+     * Recomputes every rollup from the orders table. Needed once for orders
+     * placed before the rollups existed; run it while order traffic is quiet.
+     */
+    @Transactional
+    public int rebuild() {
+        long start = System.currentTimeMillis();
+        Map<RollupKey, OrderAnalyticsResponse.Breakdown> counters = new HashMap<>();
+        try (Stream<Object[]> rows = orderRepository.streamForAnalytics()) {
+            rows.forEach(row -> {
+                LocalDateTime orderDate = (LocalDateTime) row[0];
+                LocalDateTime time = orderDate != null ? orderDate : (LocalDateTime) row[1];
+                Order.OrderStatus status = (Order.OrderStatus) row[2];
+                Order.PaymentType paymentType = (Order.PaymentType) row[3];
+                BigDecimal total = row[4] != null ? (BigDecimal) row[4] : BigDecimal.ZERO;
+                BigDecimal revenue = revenueOf(total, status);
+                for (OrderRollup.Granularity granularity : OrderRollup.Granularity.values()) {
+                    LocalDateTime bucketStart = truncate(time, granularity);
+                    count(counters, new RollupKey(granularity, bucketStart, OrderRollup.Dimension.TOTAL, ALL), revenue);
+                    count(counters, new RollupKey(granularity, bucketStart, OrderRollup.Dimension.STATUS, nameOf(status)), total);
+                    count(counters, new RollupKey(granularity, bucketStart, OrderRollup.Dimension.PAYMENT_TYPE, nameOf(paymentType)), revenue);
+                }
+            });
+        }
+        
+        rollupRepository.deleteAllInBatch();
+        List<OrderRollup> rollups = new ArrayList<>(counters.size());
+        counters.forEach((key, value) -> rollups.add(OrderRollup.builder()
+                .granularity(key.granularity())
+                .bucketStart(key.bucketStart())
+                .dimension(key.dimension())
+                .dimensionValue(key.dimensionValue())
+                .orderCount(value.getOrderCount())
+                .revenue(value.getRevenue())
+                .build()));
+        rollupRepository.saveAll(rollups);
+        log.info("Rebuilt {} order rollups in {} ms", rollups.size(), System.currentTimeMillis() - start);
+        return rollups.size();
+    }
+    
+    // Backfills orders placed before the rollup tables existed
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rebuildIfEmpty() {
+        if (rollupRepository.count() == 0 && orderRepository.count() > 0) {
+            rebuild();
+        }
+    }
+    
+    private void apply(Order order, Order.OrderStatus status, int sign) {
+        BigDecimal total = totalOf(order);
+        BigDecimal revenue = revenueOf(total, status);
+        LocalDateTime time = bucketTime(order);
+        BigDecimal factor = BigDecimal.valueOf(sign);
+        
+        increment(time, OrderRollup.Dimension.TOTAL, ALL, sign, revenue.multiply(factor));
+        increment(time, OrderRollup.Dimension.STATUS, nameOf(status), sign, total.multiply(factor));
+        increment(time, OrderRollup.Dimension.PAYMENT_TYPE, nameOf(order.getPaymentType()), sign, revenue.multiply(factor));
+    }
+    
+    private void increment(LocalDateTime time, OrderRollup.Dimension dimension, String value, long countDelta, BigDecimal revenueDelta) {
+        if (countDelta == 0 && revenueDelta.signum() == 0) {
+            return;
+        }
+        for (OrderRollup.Granularity granularity : OrderRollup.Granularity.values()) {
+            rollupRepository.increment(granularity.name(), truncate(time, granularity),
+                    dimension.name(), value, countDelta, revenueDelta);
+        }
+    }
+    
+    private static void count(Map<RollupKey, OrderAnalyticsResponse.Breakdown> counters, RollupKey key, BigDecimal revenue) {
+        OrderAnalyticsResponse.Breakdown counter = counters.computeIfAbsent(key, k -> breakdown());
+        counter.setOrderCount(counter.getOrderCount() + 1);
+        counter.setRevenue(counter.getRevenue().add(revenue));
+    }
+    
+    private static void add(OrderAnalyticsResponse.Breakdown target, OrderRollup row) {
+        target.setOrderCount(target.getOrderCount() + row.getOrderCount());
+        target.setRevenue(target.getRevenue().add(row.getRevenue()));
+    }
+    
+    private static OrderAnalyticsResponse.Breakdown breakdown() {
+        return new OrderAnalyticsResponse.Breakdown(0L, BigDecimal.ZERO);
+    }
+    
+    private static OrderAnalyticsResponse.Bucket emptyBucket(LocalDateTime bucketStart) {
+        return new OrderAnalyticsResponse.Bucket(bucketStart, 0L, BigDecimal.ZERO, new TreeMap<>(), new TreeMap<>());
+    }
+    
+    private static LocalDateTime bucketTime(Order order) {
+        if (order.getOrderDate() != null) {
+            return order.getOrderDate();
+        }
+        return order.getCreatedAt() != null ? order.getCreatedAt() : LocalDateTime.now();
+    }
+    
+    private static BigDecimal totalOf(Order order) {
+        return order.getTotal() != null ? order.getTotal() : BigDecimal.ZERO;
+    }
+    
+    private static BigDecimal revenueOf(BigDecimal total, Order.OrderStatus status) {
+        return status == Order.OrderStatus.CANCELLED ? BigDecimal.ZERO : total;
+    }
+    
+    private static String nameOf(Enum<?> value) {
+        return value != null ? value.name() : UNKNOWN;
+    }
+    
+    static LocalDateTime truncate(LocalDateTime time, OrderRollup.Granularity granularity) {
+        return time.truncatedTo(unitOf(granularity));
+    }
+    
+    private static ChronoUnit unitOf(OrderRollup.Granularity granularity) {
+        return granularity == OrderRollup.Granularity.HOUR ? ChronoUnit.HOURS : ChronoUnit.DAYS;
+    }
+    
+    private record RollupKey(OrderRollup.Granularity granularity, LocalDateTime bucketStart,
+                             OrderRollup.Dimension dimension, String dimensionValue) {
+    }
+}
@@ -0,0 +1,49 @@
+package com.megamart.orderpaymentserver.service;
+
+import com.megamart.orderpaymentserver.entity.Order;
+import com.megamart.orderpaymentserver.exception.InvalidRequestException;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Opaque keyset cursor for the admin order search, newest first. It encodes
+ * the last row's createdAt and id, so the next page is a seek on
+ * (created_at, id) rather than an OFFSET.
+ */
+final class OrderCursor {
+    
+    static final Sort SORT = Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "id"));
+    
+    private OrderCursor() {
+    }
+    
+    static ScrollPosition position(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", -1);
+            if (parts.length != 2) {
+                throw new InvalidRequestException("cursor", cursor);
+            }
+            Map<String, Object> keys = new LinkedHashMap<>();
+            keys.put("createdAt", LocalDateTime.parse(parts[0]));
+            keys.put("id", Long.valueOf(parts[1]));
+            return ScrollPosition.forward(keys);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidRequestException("cursor", cursor);
+        }
+    }
+    
+    static String encode(Order last) {
+        String raw = last.getCreatedAt() + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
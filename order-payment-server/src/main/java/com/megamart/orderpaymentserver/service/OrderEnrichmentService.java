@@ -0,0 +1,144 @@
+package com.megamart.orderpaymentserver.service;
+
+import com.megamart.orderpaymentserver.client.UserServiceClient;
+import com.megamart.orderpaymentserver.dto.OrderResponse;
+import com.megamart.orderpaymentserver.entity.Order;
+import com.megamart.orderpaymentserver.service.interfaces.UserDataServiceInterface;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Builds order responses that need data owned by other services (shipping
+ * address, payment method, customer details). The lookups are independent, so
+ * they run concurrently with a per-call timeout: a slow or failing dependency
+ * leaves its part of the response empty instead of failing the request, and
+ * the total latency is bounded by the slowest call rather than their sum.
+ */
+@Service
+@Slf4j
+public class OrderEnrichmentService {
+
+    private final UserDataServiceInterface userDataService;
+    private final UserServiceClient userServiceClient;
+    private final MappingService mappingService;
+    private final ExecutorService executor;
+    private final Duration timeout;
+
+    public OrderEnrichmentService(UserDataServiceInterface userDataService,
+                                  UserServiceClient userServiceClient,
+                                  MappingService mappingService,
+                                  @Qualifier("orderEnrichmentExecutor") ExecutorService executor,
+                                  @Value("${order.enrichment.timeout:PT2S}") Duration timeout) {
+        this.userDataService = userDataService;
+        this.userServiceClient = userServiceClient;
+        this.mappingService = mappingService;
+        this.executor = executor;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Maps the order with its address and payment method, and optionally the
+     * customer's name, email and phone from user-admin-server.
+     */
+    public OrderResponse toResponse(Order order, boolean includeCustomer) {
+        String userId = order.getUserId();
+
+        // MappingService prefers the address snapshot stored on the order, so
+        // only look it up remotely for orders that predate the snapshot
+        CompletableFuture<OrderResponse.Address> address = order.getShippingFullName() == null
+                && order.getShippingAddressId() != null
+                ? lookup("address", () -> userDataService.getAddress(userId, order.getShippingAddressId()))
+                : CompletableFuture.completedFuture(null);
+
+        Long paymentMethodId = paymentMethodId(order);
+        CompletableFuture<OrderResponse.PaymentMethod> paymentMethod = paymentMethodId != null
+                ? lookup("payment method", () -> userDataService.getPaymentMethod(userId, paymentMethodId))
+                : CompletableFuture.completedFuture(null);
+
+        CompletableFuture<Map<String, Object>> customer = includeCustomer
+                ? lookup("user details", () -> userServiceClient.getUserById(userId))
+                : CompletableFuture.completedFuture(null);
+
+        OrderResponse response = mappingService.mapToOrderResponse(order, address.join(), paymentMethod.join());
+
+        Map<String, Object> userDetails = customer.join();
+        if (userDetails != null) {
+            response.setCustomerName((String) userDetails.get("name"));
+            response.setCustomerEmail((String) userDetails.get("email"));
+            response.setCustomerPhone((String) userDetails.get("phone"));
+        }
+        return response;
+    }
+
+    /**
+     * Maps a page of orders with one address lookup and one payment method
+     * lookup per user instead of one of each per order. Customer details are
+     * not included.
+     */
+    public List<OrderResponse> toResponses(List<Order> orders) {
+        Map<String, List<Order>> ordersByUser = new LinkedHashMap<>();
+        for (Order order : orders) {
+            ordersByUser.computeIfAbsent(order.getUserId(), id -> new ArrayList<>()).add(order);
+        }
+
+        Map<String, CompletableFuture<Map<Long, OrderResponse.Address>>> addresses = new HashMap<>();
+        Map<String, CompletableFuture<Map<Long, OrderResponse.PaymentMethod>>> paymentMethods = new HashMap<>();
+        ordersByUser.forEach((userId, userOrders) -> {
+            Set<Long> addressIds = new HashSet<>();
+            Set<Long> paymentMethodIds = new HashSet<>();
+            for (Order order : userOrders) {
+                if (order.getShippingFullName() == null && order.getShippingAddressId() != null) {
+                    addressIds.add(order.getShippingAddressId());
+                }
+                Long paymentMethodId = paymentMethodId(order);
+                if (paymentMethodId != null) {
+                    paymentMethodIds.add(paymentMethodId);
+                }
+            }
+            addresses.put(userId, addressIds.isEmpty()
+                    ? CompletableFuture.completedFuture(Map.of())
+                    : lookup("addresses", () -> userDataService.getAddresses(userId, addressIds)));
+            paymentMethods.put(userId, paymentMethodIds.isEmpty()
+                    ? CompletableFuture.completedFuture(Map.of())
+                    : lookup("payment methods", () -> userDataService.getPaymentMethods(userId, paymentMethodIds)));
+        });
+
+        List<OrderResponse> responses = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            Map<Long, OrderResponse.Address> userAddresses = addresses.get(order.getUserId()).join();
+            Map<Long, OrderResponse.PaymentMethod> userPaymentMethods = paymentMethods.get(order.getUserId()).join();
+            responses.add(mappingService.mapToOrderResponse(order,
+                    userAddresses != null ? userAddresses.get(order.getShippingAddressId()) : null,
+                    userPaymentMethods != null ? userPaymentMethods.get(paymentMethodId(order)) : null));
+        }
+        return responses;
+    }
+
+    private static Long paymentMethodId(Order order) {
+        return order.getPayment() != null ? order.getPayment().getPaymentMethodId() : null;
+    }
+
+    private <T> CompletableFuture<T> lookup(String what, Supplier<T> call) {
+        return CompletableFuture.supplyAsync(call, executor)
+                .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .exceptionally(e -> {
+                    log.warn("Failed to fetch {} for order response: {}", what, e.toString());
+                    return null;
+                });
+    }
+}
@@ -0,0 +1,194 @@
+package com.megamart.orderpaymentserver.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.megamart.orderpaymentserver.dto.OrderExportRow;
+import com.megamart.orderpaymentserver.exception.InvalidRequestException;
+import com.megamart.orderpaymentserver.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Writes the orders table to a response stream one row at a time. Orders are
+ * read through a database cursor as plain column rows, so heap use stays flat
+ * no matter how many orders are exported.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderExportService {
+    
+    public enum Format {
+        NDJSON, CSV;
+        
+        public static Format parse(String value) {
+            try {
+                return Format.valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new InvalidRequestException("format", "Unsupported export format: " + value + ". Use ndjson or csv");
+            }
+        }
+    }
+    
+    private static final String[] CSV_COLUMNS = {
+        "id", "userId", "total", "orderStatus", "paymentType", "paymentStatus", "orderDate", "shippingAddressId",
+        "shippingFullName", "shippingAddressLine1", "shippingAddressLine2", "shippingCity", "shippingState",
+        "shippingPostalCode", "shippingCountry", "shippingPhone"
+    };
+    
+    // Push buffered rows to the client at this interval so it sees progress
+    private static final int FLUSH_EVERY = 500;
+    
+    private final OrderRepository orderRepository;
+    private final ObjectMapper objectMapper;
+    
+    @Transactional(readOnly = true)
+    public long exportOrders(Format format, OutputStream out) throws IOException {
+        long count = switch (format) {
+            case NDJSON -> writeNdjson(out);
+            case CSV -> writeCsv(out);
+        };
+        log.info("Exported {} orders as {}", count, format);
+        return count;
+    }
+    
+    /**
+     * Writes all orders in the page-like envelope the admin debug view expects
+     * ({"content": [...], "totalElements": n, ...}), streaming the content array.
+     * The 200 status is sent with the first bytes, so if reading orders fails
+     * part way the envelope is closed with "success": false and an "error"
+     * instead of the page fields, and the client still gets valid JSON.
+     */
+    @Transactional(readOnly = true)
+    public long writeSimpleOrdersList(OutputStream out) throws IOException {
+        try (JsonGenerator json = objectMapper.createGenerator(out);
+             Stream<OrderExportRow> orders = orderRepository.streamAllForExport()) {
+            json.writeStartObject();
+            json.writeArrayFieldStart("content");
+            long count = 0;
+            try {
+                for (Iterator<OrderExportRow> it = orders.iterator(); it.hasNext(); ) {
+                    writeJsonOrder(json, it.next());
+                    if (++count % FLUSH_EVERY == 0) {
+                        json.flush();
+                    }
+                }
+            } catch (RuntimeException e) {
+                log.error("Simple order list failed after {} orders", count, e);
+                json.writeEndArray();
+                json.writeBooleanField("success", false);
+                json.writeStringField("error", "Order list is incomplete: reading orders failed after " + count);
+                json.writeEndObject();
+                return count;
+            }
+            json.writeEndArray();
+            json.writeNumberField("totalElements", count);
+            json.writeNumberField("totalPages", 1);
+            json.writeNumberField("size", count);
+            json.writeNumberField("number", 0);
+            json.writeEndObject();
+            return count;
+        }
+    }
+    
+    private long writeNdjson(OutputStream out) throws IOException {
+        try (JsonGenerator json = objectMapper.createGenerator(out);
+             Stream<OrderExportRow> orders = orderRepository.streamAllForExport()) {
+            // Root values are separated by a newline, giving one order per line
+            json.setRootValueSeparator(null);
+            long count = 0;
+            for (Iterator<OrderExportRow> it = orders.iterator(); it.hasNext(); ) {
+                writeJsonOrder(json, it.next());
+                json.writeRaw('\n');
+                if (++count % FLUSH_EVERY == 0) {
+                    json.flush();
+                }
+            }
+            return count;
+        }
+    }
+    
+    private long writeCsv(OutputStream out) throws IOException {
+        Writer csv = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        try (Stream<OrderExportRow> orders = orderRepository.streamAllForExport()) {
+            csv.write(String.join(",", CSV_COLUMNS));
+            csv.write("\r\n");
+            long count = 0;
+            for (Iterator<OrderExportRow> it = orders.iterator(); it.hasNext(); ) {
+                writeCsvRow(csv, it.next());
+                if (++count % FLUSH_EVERY == 0) {
+                    csv.flush();
+                }
+            }
+            return count;
+        } finally {
+            csv.flush();
+        }
+    }
+    
+    private void writeJsonOrder(JsonGenerator json, OrderExportRow order) throws IOException {
+        json.writeStartObject();
+        json.writeObjectField("id", order.id());
+        json.writeStringField("userId", order.userId());
+        json.writeObjectField("total", order.total());
+        json.writeStringField("orderStatus", name(order.orderStatus()));
+        json.writeStringField("paymentType", name(order.paymentType()));
+        json.writeStringField("paymentStatus", name(order.paymentStatus()));
+        json.writeObjectField("orderDate", order.orderDate());
+        json.writeObjectField("shippingAddressId", order.shippingAddressId());
+        json.writeObjectFieldStart("shippingAddress");
+        json.writeStringField("fullName", order.shippingFullName());
+        json.writeStringField("addressLine1", order.shippingAddressLine1());
+        json.writeStringField("addressLine2", order.shippingAddressLine2());
+        json.writeStringField("city", order.shippingCity());
+        json.writeStringField("state", order.shippingState());
+        json.writeStringField("postalCode", order.shippingPostalCode());
+        json.writeStringField("country", order.shippingCountry());
+        json.writeStringField("phone", order.shippingPhone());
+        json.writeEndObject();
+        json.writeEndObject();
+    }
+    
+    private void writeCsvRow(Writer csv, OrderExportRow order) throws IOException {
+        Object[] values = {
+            order.id(), order.userId(), order.total(), name(order.orderStatus()),
+            name(order.paymentType()), name(order.paymentStatus()), order.orderDate(),
+            order.shippingAddressId(), order.shippingFullName(), order.shippingAddressLine1(),
+            order.shippingAddressLine2(), order.shippingCity(), order.shippingState(),
+            order.shippingPostalCode(), order.shippingCountry(), order.shippingPhone()
+        };
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                csv.write(',');
+            }
+            if (values[i] != null) {
+                csv.write(csvField(values[i].toString()));
+            }
+        }
+        csv.write("\r\n");
+    }
+    
+    // RFC 4180 quoting: wrap in quotes when the value contains a delimiter, quote or line break
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+    
+    private static String name(Enum<?> value) {
+        return value != null ? value.name() : null;
+    }
+}
@@ -1,14 +1,18 @@
 package com.megamart.orderpaymentserver.service;
 
+import com.megamart.orderpaymentserver.dto.OrderCursorPage;
 import com.megamart.orderpaymentserver.dto.OrderRequest;
 import com.megamart.orderpaymentserver.dto.OrderResponse;
+import com.megamart.orderpaymentserver.dto.OrderSearchCriteria;
 import com.megamart.orderpaymentserver.entity.Order;
 import com.megamart.orderpaymentserver.entity.OrderItem;
 import com.megamart.orderpaymentserver.entity.Payment;
 import com.megamart.orderpaymentserver.exception.InvalidOrderStatusException;
 import com.megamart.orderpaymentserver.exception.InvalidRequestException;
 import com.megamart.orderpaymentserver.exception.OrderNotFoundException;
+import com.megamart.orderpaymentserver.exception.ServiceUnavailableException;
 import com.megamart.orderpaymentserver.repository.OrderRepository;
+import com.megamart.orderpaymentserver.repository.OrderSpecifications;
 import com.megamart.orderpaymentserver.repository.OrderTrackingRepository;
 import com.megamart.orderpaymentserver.entity.OrderTracking;
 import com.megamart.orderpaymentserver.service.interfaces.OrderServiceInterface;
@@ -18,14 +22,25 @@ import com.megamart.orderpaymentserver.client.ProductServiceClient;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
@@ -34,13 +49,18 @@ import java.util.stream.Collectors;
 @Transactional
 public class OrderService implements OrderServiceInterface {
     
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+    
     private final OrderRepository orderRepository;
     private final OrderTrackingRepository trackingRepository;
     private final UserDataServiceInterface userDataService;
-    private final com.megamart.orderpaymentserver.client.UserServiceClient userServiceClient;
     private final MappingService mappingService;
+    private final OrderEnrichmentService enrichmentService;
     private final CartServiceClient cartServiceClient;
     private final ProductServiceClient productServiceClient;
+    private final OutboxService outboxService;
+    private final OrderAnalyticsService analyticsService;
+    private final PlatformTransactionManager transactionManager;
 
 
     @Override
@@ -67,6 +87,7 @@ public class OrderService implements OrderServiceInterface {
         createPaymentForOrder(order, request.getTotal(), paymentMethod.getId());
         
         Order savedOrder = orderRepository.save(order);
+        analyticsService.recordCreated(savedOrder);
         log.info("Order created successfully with ID: {}", savedOrder.getId());
         
         return mappingService.mapToOrderResponse(savedOrder, shippingAddress, paymentMethod);
@@ -78,33 +99,16 @@ public class OrderService implements OrderServiceInterface {
         Order order = orderRepository.findByIdWithDetails(orderId)
                 .orElseThrow(() -> new OrderNotFoundException(orderId));
         
-        OrderResponse.Address address = getAddressDetails(order.getUserId(), order.getShippingAddressId());
-        OrderResponse.PaymentMethod paymentMethod = getPaymentMethodDetails(order);
-        
-        OrderResponse response = mappingService.mapToOrderResponse(order, address, paymentMethod);
-        
-        // Fetch user details from user-admin service
-        try {
-            Map<String, Object> userDetails = userServiceClient.getUserById(order.getUserId());
-            if (userDetails != null) {
-                response.setCustomerName((String) userDetails.get("name"));
-                response.setCustomerEmail((String) userDetails.get("email"));
-                response.setCustomerPhone((String) userDetails.get("phone"));
-                log.info("Fetched user details: name={}, email={}, phone={}", 
-                    userDetails.get("name"), userDetails.get("email"), userDetails.get("phone"));
-            }
-        } catch (Exception e) {
-            log.warn("Failed to fetch user details for userId: {}", order.getUserId(), e);
-        }
-        
-        return response;
+        // Address, payment method and customer details are fetched concurrently
+        return enrichmentService.toResponse(order, true);
     }
     
     @Override
     @Transactional(readOnly = true)
     public Page<OrderResponse> getUserOrders(String userId, Pageable pageable) {
         Page<Order> orders = orderRepository.findByUserIdOrderByCreatedAtDesc(userId, pageable);
-        return orders.map(this::convertOrderWithDetails);
+        // Addresses and payment methods for the whole page are fetched in one call each
+        return new PageImpl<>(enrichmentService.toResponses(orders.getContent()), pageable, orders.getTotalElements());
     }
     
     @Override
@@ -112,24 +116,63 @@ public class OrderService implements OrderServiceInterface {
     public Page<OrderResponse> getAllOrders(Pageable pageable) {
         try {
             Page<Order> orders = orderRepository.findAll(pageable);
-            return orders.map(order -> {
-                // Simple mapping without complex relationships
-                OrderResponse response = new OrderResponse();
-                response.setId(order.getId());
-                response.setUserId(order.getUserId());
-                response.setTotal(order.getTotal());
-                response.setOrderStatus(order.getOrderStatus().toString());
-                response.setOrderDate(order.getOrderDate());
-                response.setPaymentType(order.getPaymentType().toString());
-                response.setPaymentStatus(order.getPaymentStatus() != null ? order.getPaymentStatus().toString() : "COMPLETED");
-                return response;
-            });
+            return orders.map(this::toSummaryResponse);
         } catch (Exception e) {
             log.error("Error getting all orders: {}", e.getMessage());
             throw new RuntimeException("Failed to retrieve orders");
         }
     }
     
+    @Override
+    @Transactional(readOnly = true)
+    public OrderCursorPage searchOrders(OrderSearchCriteria criteria, String cursor, int size) {
+        if (size < 1 || size > MAX_SEARCH_PAGE_SIZE) {
+            throw new InvalidRequestException("size", "Page size must be between 1 and " + MAX_SEARCH_PAGE_SIZE);
+        }
+        Specification<Order> spec = Specification.allOf(
+                OrderSpecifications.hasStatus(parseEnum(Order.OrderStatus.class, "status", criteria.getStatus())),
+                OrderSpecifications.hasPaymentStatus(parseEnum(Order.PaymentStatus.class, "paymentStatus", criteria.getPaymentStatus())),
+                OrderSpecifications.hasUserId(criteria.getUserId()),
+                OrderSpecifications.createdFrom(criteria.getFrom()),
+                OrderSpecifications.createdBefore(criteria.getTo()));
+        
+        // Seeks past the cursor's (createdAt, id); no count query is issued
+        ScrollPosition position = OrderCursor.position(cursor);
+        Window<Order> window = orderRepository.findBy(spec,
+                query -> query.sortBy(OrderCursor.SORT).limit(size).scroll(position));
+        
+        List<Order> orders = window.getContent();
+        String nextCursor = window.hasNext() && !orders.isEmpty()
+                ? OrderCursor.encode(orders.get(orders.size() - 1))
+                : null;
+        return new OrderCursorPage(orders.stream().map(this::toSummaryResponse).toList(),
+                orders.size(), window.hasNext(), nextCursor);
+    }
+    
+    private OrderResponse toSummaryResponse(Order order) {
+        // Simple mapping without complex relationships
+        OrderResponse response = new OrderResponse();
+        response.setId(order.getId());
+        response.setUserId(order.getUserId());
+        response.setTotal(order.getTotal());
+        response.setOrderStatus(order.getOrderStatus().toString());
+        response.setOrderDate(order.getOrderDate());
+        response.setPaymentType(order.getPaymentType().toString());
+        response.setPaymentStatus(order.getPaymentStatus() != null ? order.getPaymentStatus().toString() : "COMPLETED");
+        return response;
+    }
+    
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String field, String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException(field, "Unknown value: " + value);
+        }
+    }
+    
     @Override
     public OrderResponse updateOrderStatus(Long orderId, String status) {
         return updateOrderStatus(orderId, status, null, null);
@@ -139,18 +182,17 @@ public class OrderService implements OrderServiceInterface {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new OrderNotFoundException(orderId));
         
+        Order.OrderStatus previousStatus = order.getOrderStatus();
         updateStatus(order, status);
         Order savedOrder = orderRepository.save(order);
+        analyticsService.recordStatusChange(savedOrder, previousStatus);
         
         // Add tracking entry
         if (locationId != null || notes != null) {
             addTrackingEntry(orderId, status, locationId, notes);
         }
         
-        OrderResponse.Address address = getAddressDetails(order.getUserId(), order.getShippingAddressId());
-        OrderResponse.PaymentMethod paymentMethod = getPaymentMethodDetails(order);
-        
-        return mappingService.mapToOrderResponse(savedOrder, address, paymentMethod);
+        return enrichmentService.toResponse(savedOrder, false);
     }
     
     private void addTrackingEntry(Long orderId, String status, Long locationId, String notes) {
@@ -175,9 +217,10 @@ public class OrderService implements OrderServiceInterface {
         
         checkIfCanCancel(order);
         
-        // Restore stock for all order items before cancelling
-        restoreStockForOrder(order);
+        // Queue stock restoration for all order items; delivered after commit
+        queueStockRestore(order);
         
+        Order.OrderStatus previousStatus = order.getOrderStatus();
         order.setOrderStatus(Order.OrderStatus.CANCELLED);
         
         // Fix: Update BOTH payment entity status AND order payment status
@@ -190,11 +233,9 @@ public class OrderService implements OrderServiceInterface {
         }
         
         Order savedOrder = orderRepository.save(order);
+        analyticsService.recordStatusChange(savedOrder, previousStatus);
         
-        OrderResponse.Address address = getAddressDetails(order.getUserId(), order.getShippingAddressId());
-        OrderResponse.PaymentMethod paymentMethod = getPaymentMethodDetails(order);
-        
-        return mappingService.mapToOrderResponse(savedOrder, address, paymentMethod);
+        return enrichmentService.toResponse(savedOrder, false);
     }
     
     // Helper methods
@@ -367,19 +408,6 @@ public class OrderService implements OrderServiceInterface {
         }
     }
     
-    private OrderResponse.PaymentMethod getPaymentMethodDetails(Order order) {
-        if (order.getPayment() != null && order.getPayment().getPaymentMethodId() != null) {
-            return getPaymentMethodDetails(order.getUserId(), order.getPayment().getPaymentMethodId());
-        }
-        return null;
-    }
-    
-    private OrderResponse convertOrderWithDetails(Order order) {
-        OrderResponse.Address address = getAddressDetails(order.getUserId(), order.getShippingAddressId());
-        OrderResponse.PaymentMethod paymentMethod = getPaymentMethodDetails(order);
-        return mappingService.mapToOrderResponse(order, address, paymentMethod);
-    }
-    
     @Override
     public OrderResponse createOrderFromCart(String userId, OrderRequest.Address address, OrderRequest.PaymentMethod paymentMethod) {
         log.info("Creating order from cart for user: {}", userId);
@@ -388,6 +416,8 @@ public class OrderService implements OrderServiceInterface {
         CartServiceClient.CartResponse cart;
         try {
             cart = cartServiceClient.getCart(userId);
+        } catch (ServiceUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error getting cart for user {}: {}", userId, e.getMessage());
             throw new InvalidRequestException("cart", "Unable to retrieve cart for user: " + userId);
@@ -397,10 +427,13 @@ public class OrderService implements OrderServiceInterface {
             throw new InvalidRequestException("cart", "Cart is empty");
         }
         
-        // Validate stock for all items
-        for (CartServiceClient.CartItem item : cart.getItems()) {
-            validateProductStock(item.getProductId(), item.getQuantity());
-        }
+        // Reserve stock for all items in one keyed call. The release is registered
+        // first, so a reservation that times out after product-server applied it is
+        // still given back when the order fails.
+        String reservationId = UUID.randomUUID().toString();
+        Map<Long, Integer> quantities = quantitiesByProduct(cart.getItems());
+        releaseStockIfRolledBack(reservationId, quantities);
+        reserveProductStock(reservationId, quantities);
         
         // Create order request from cart
         OrderRequest orderRequest = new OrderRequest();
@@ -422,70 +455,110 @@ public class OrderService implements OrderServiceInterface {
             .collect(Collectors.toList());
         orderRequest.setItems(orderItems);
         
-        // Create order
         OrderResponse orderResponse = createOrder(orderRequest);
         
-        // Reduce stock for all items
-        for (CartServiceClient.CartItem item : cart.getItems()) {
-            reduceProductStock(item.getProductId(), item.getQuantity());
-        }
+        // The outbox dispatcher removes the ordered items from the cart once the order has committed
+        outboxService.enqueueCartClear(orderResponse.getId(), userId,
+            cart.getItems().stream().map(CartServiceClient.CartItem::getId).collect(Collectors.toList()));
         
-        // Clear cart after successful order
+        return orderResponse;
+    }
+    
+    private static Map<Long, Integer> quantitiesByProduct(List<CartServiceClient.CartItem> items) {
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (CartServiceClient.CartItem item : items) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+    
+    /**
+     * Takes the stock through product-server's keyed adjustments, so a late or
+     * repeated delivery of the same reservation is applied at most once. Any
+     * item not applied fails the order, and the rollback releases the rest.
+     */
+    @SuppressWarnings("unchecked")
+    private void reserveProductStock(String reservationId, Map<Long, Integer> quantities) {
+        List<ProductServiceClient.StockAdjustmentItem> items = quantities.entrySet().stream()
+            .map(entry -> new ProductServiceClient.StockAdjustmentItem(
+                reserveKey(reservationId, entry.getKey()), entry.getKey(), -entry.getValue()))
+            .collect(Collectors.toList());
+        Map<String, Object> outcomes;
         try {
-            cartServiceClient.clearCart(userId);
+            Map<String, Object> response = productServiceClient.applyStockAdjustments(
+                new ProductServiceClient.StockAdjustmentRequest(items));
+            outcomes = response != null ? (Map<String, Object>) response.get("data") : null;
+        } catch (ServiceUnavailableException e) {
+            throw e;
         } catch (Exception e) {
-            log.warn("Failed to clear cart for user {}: {}", userId, e.getMessage());
+            log.error("Error reserving stock: {}", e.getMessage());
+            throw new InvalidRequestException("stock", "Unable to reserve stock for cart items: " + e.getMessage());
         }
         
-        return orderResponse;
+        List<Long> notReserved = new ArrayList<>();
+        for (ProductServiceClient.StockAdjustmentItem item : items) {
+            Object outcome = outcomes != null ? outcomes.get(item.getIdempotencyKey()) : null;
+            if (!"APPLIED".equals(outcome)) {
+                notReserved.add(item.getProductId());
+            }
+        }
+        if (!notReserved.isEmpty()) {
+            throw new InvalidRequestException("stock", "Insufficient stock for products: " + notReserved);
+        }
+        log.info("Reserved stock for {} products under reservation {}", items.size(), reservationId);
     }
     
-    private void validateProductStock(Long productId, Integer quantity) {
-        try {
-            ProductServiceClient.ProductResponse product = productServiceClient.getProductById(productId);
-            if (product == null || !product.isSuccess() || product.getData() == null) {
-                throw new InvalidRequestException("product", "Product not found: " + productId);
-            }
-            
-            if (product.getData().getStock() < quantity) {
-                throw new InvalidRequestException("stock", 
-                    "Insufficient stock for product " + productId + ". Available: " + 
-                    product.getData().getStock() + ", Required: " + quantity);
+    /**
+     * Releases the reservation if the order transaction rolls back, including
+     * when the commit itself fails. The releases go to the outbox in a new
+     * transaction, since the rolled-back one takes anything written to it along,
+     * and are delivered with retries like any other stock adjustment. Each
+     * release reverses its reservation key, so product-server only gives back
+     * stock that was actually taken.
+     */
+    private void releaseStockIfRolledBack(String reservationId, Map<Long, Integer> quantities) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    queueStockRelease(reservationId, quantities);
+                } else if (status == STATUS_UNKNOWN) {
+                    log.error("Order transaction outcome unknown; stock reservation {} may need releasing", reservationId);
+                }
             }
-        } catch (Exception e) {
-            log.error("Error validating product stock: {}", e.getMessage());
-            throw new InvalidRequestException("product", "Error validating product: " + productId);
-        }
+        });
     }
     
-    private void reduceProductStock(Long productId, Integer quantity) {
+    private void queueStockRelease(String reservationId, Map<Long, Integer> quantities) {
+        TransactionTemplate newTransaction = new TransactionTemplate(transactionManager);
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
         try {
-            Map<String, Integer> request = Map.of("stockChange", -quantity);
-            productServiceClient.updateStock(productId, request);
-            log.info("Reduced stock for product {} by {}", productId, quantity);
-        } catch (Exception e) {
-            log.error("Error reducing stock for product {}: {}", productId, e.getMessage());
+            newTransaction.executeWithoutResult(status -> quantities.forEach((productId, quantity) ->
+                outboxService.enqueueStockRelease(releaseKey(reservationId, productId),
+                    reserveKey(reservationId, productId), productId, quantity)));
+        } catch (RuntimeException e) {
+            log.error("Could not queue release of stock reservation {}: {}", reservationId, e.getMessage());
         }
     }
     
-    private void restoreStockForOrder(Order order) {
+    private static String reserveKey(String reservationId, Long productId) {
+        return "checkout-" + reservationId + "-product-" + productId + "-reserve";
+    }
+    
+    private static String releaseKey(String reservationId, Long productId) {
+        return "checkout-" + reservationId + "-product-" + productId + "-release";
+    }
+    
+    private void queueStockRestore(Order order) {
         if (order.getOrderItems() != null && !order.getOrderItems().isEmpty()) {
             for (OrderItem item : order.getOrderItems()) {
-                restoreProductStock(item.getProductId(), item.getQuantity());
+                // Keyed per order item so the same quantity is never restored twice
+                String key = "order-" + order.getId() + "-item-" + item.getId() + "-restock";
+                outboxService.enqueueStockAdjustment(key, order.getId(), item.getProductId(), item.getQuantity());
             }
         }
     }
     
-    private void restoreProductStock(Long productId, Integer quantity) {
-        try {
-            Map<String, Integer> request = Map.of("stockChange", quantity);
-            productServiceClient.updateStock(productId, request);
-            log.info("Restored stock for product {} by {}", productId, quantity);
-        } catch (Exception e) {
-            log.error("Error restoring stock for product {}: {}", productId, e.getMessage());
-        }
-    }
-    
     public List<OrderTracking> getOrderTrackingHistory(Long orderId) {
         return trackingRepository.findByOrderIdOrderByCreatedAtAsc(orderId);
     }
@@ -494,9 +567,9 @@ public class OrderService implements OrderServiceInterface {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new OrderNotFoundException(orderId));
         
-        // Restore stock if order is not delivered
+        // Restore stock if order is not delivered; a no-op if cancelling already queued it
         if (order.getOrderStatus() != Order.OrderStatus.DELIVERED) {
-            restoreStockForOrder(order);
+            queueStockRestore(order);
         }
         
         // Delete tracking history first
@@ -504,41 +577,8 @@ public class OrderService implements OrderServiceInterface {
         trackingRepository.deleteAll(trackingHistory);
         
         // Delete the order
+        analyticsService.recordDeleted(order);
         orderRepository.delete(order);
         log.info("Order {} deleted successfully", orderId);
     }
-    
-    public List<Map<String, Object>> getSimpleOrdersList() {
-        try {
-            List<Order> orders = orderRepository.findAll();
-            return orders.stream().map(order -> {
-                Map<String, Object> orderMap = new HashMap<>();
-                orderMap.put("id", order.getId());
-                orderMap.put("userId", order.getUserId());
-                orderMap.put("total", order.getTotal());
-                orderMap.put("orderStatus", order.getOrderStatus().toString());
-                orderMap.put("paymentType", order.getPaymentType().toString());
-                orderMap.put("paymentStatus", order.getPaymentStatus().toString());
-                orderMap.put("orderDate", order.getOrderDate());
-                orderMap.put("shippingAddressId", order.getShippingAddressId());
-                
-                // Include stored shipping address details
-                Map<String, Object> shippingAddress = new HashMap<>();
-                shippingAddress.put("fullName", order.getShippingFullName());
-                shippingAddress.put("addressLine1", order.getShippingAddressLine1());
-                shippingAddress.put("addressLine2", order.getShippingAddressLine2());
-                shippingAddress.put("city", order.getShippingCity());
-                shippingAddress.put("state", order.getShippingState());
-                shippingAddress.put("postalCode", order.getShippingPostalCode());
-                shippingAddress.put("country", order.getShippingCountry());
-                shippingAddress.put("phone", order.getShippingPhone());
-                orderMap.put("shippingAddress", shippingAddress);
-                
-                return orderMap;
-            }).collect(Collectors.toList());
-        } catch (Exception e) {
-            log.error("Error getting simple orders: {}", e.getMessage());
-            return new java.util.ArrayList<>();
-        }
-    }
-} 
+}
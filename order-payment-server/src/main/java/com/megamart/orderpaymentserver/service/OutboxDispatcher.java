@@ -0,0 +1,190 @@
+package com.megamart.orderpaymentserver.service;
+
+import com.megamart.orderpaymentserver.client.CartServiceClient;
+import com.megamart.orderpaymentserver.client.ProductServiceClient;
+import com.megamart.orderpaymentserver.entity.OutboxEvent;
+import com.megamart.orderpaymentserver.repository.OutboxEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Delivers outbox events to the services they concern. Stock adjustments due
+ * in a run go to product-server as one batch, deduplicated there by
+ * idempotency key; cart clears are idempotent by nature and sent one by one.
+ * Failed deliveries are retried with exponential backoff until
+ * outbox.max-attempts, after which the event is marked FAILED and logged.
+ * <p>
+ * Due events are claimed in a short transaction that leases them for
+ * outbox.claim-lease, so the row locks are released before any remote call.
+ * Outcomes are written back in a second short transaction; an event whose
+ * outcome is never recorded becomes due again when its lease runs out.
+ */
+@Component
+@Slf4j
+public class OutboxDispatcher {
+    
+    private static final Duration MAX_BACKOFF = Duration.ofMinutes(5);
+    
+    private final OutboxEventRepository outboxRepository;
+    private final ProductServiceClient productServiceClient;
+    private final CartServiceClient cartServiceClient;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration claimLease;
+    
+    public OutboxDispatcher(OutboxEventRepository outboxRepository,
+                            ProductServiceClient productServiceClient,
+                            CartServiceClient cartServiceClient,
+                            TransactionTemplate transactionTemplate,
+                            @Value("${outbox.batch-size:100}") int batchSize,
+                            @Value("${outbox.max-attempts:10}") int maxAttempts,
+                            @Value("${outbox.claim-lease:PT2M}") Duration claimLease) {
+        this.outboxRepository = outboxRepository;
+        this.productServiceClient = productServiceClient;
+        this.cartServiceClient = cartServiceClient;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.claimLease = claimLease;
+    }
+    
+    @Scheduled(initialDelayString = "${outbox.dispatch-interval:PT1S}",
+               fixedDelayString = "${outbox.dispatch-interval:PT1S}")
+    public void dispatch() {
+        List<OutboxEvent> claimed = transactionTemplate.execute(status -> claimDue());
+        if (claimed == null || claimed.isEmpty()) {
+            return;
+        }
+        
+        // Remote calls run outside any transaction; they update the detached events only
+        List<OutboxEvent> stockAdjustments = new ArrayList<>();
+        for (OutboxEvent event : claimed) {
+            switch (event.getEventType()) {
+                case STOCK_ADJUSTMENT -> stockAdjustments.add(event);
+                case CART_CLEAR -> deliverCartClear(event);
+            }
+        }
+        if (!stockAdjustments.isEmpty()) {
+            deliverStockAdjustments(stockAdjustments);
+        }
+        
+        transactionTemplate.executeWithoutResult(status -> recordOutcomes(claimed));
+        log.debug("Dispatched {} outbox events", claimed.size());
+    }
+    
+    // Pushing nextAttemptAt past the lease hides the events from other dispatchers once the locks go
+    private List<OutboxEvent> claimDue() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> due = outboxRepository.findDueForDispatch(
+                OutboxEvent.Status.PENDING, now, Limit.of(batchSize));
+        due.forEach(event -> event.setNextAttemptAt(now.plus(claimLease)));
+        return due;
+    }
+    
+    private void recordOutcomes(List<OutboxEvent> delivered) {
+        Map<Long, OutboxEvent> current = outboxRepository.findAllById(
+                        delivered.stream().map(OutboxEvent::getId).toList()).stream()
+                .collect(Collectors.toMap(OutboxEvent::getId, Function.identity()));
+        for (OutboxEvent outcome : delivered) {
+            OutboxEvent event = current.get(outcome.getId());
+            // Settled by another dispatcher after this one's lease ran out
+            if (event == null || event.getStatus() != OutboxEvent.Status.PENDING) {
+                continue;
+            }
+            event.setStatus(outcome.getStatus());
+            event.setAttempts(outcome.getAttempts());
+            event.setNextAttemptAt(outcome.getNextAttemptAt());
+            event.setLastError(outcome.getLastError());
+            event.setSentAt(outcome.getSentAt());
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private void deliverStockAdjustments(List<OutboxEvent> events) {
+        List<ProductServiceClient.StockAdjustmentItem> items = events.stream()
+                .map(event -> new ProductServiceClient.StockAdjustmentItem(
+                        event.getIdempotencyKey(), event.getProductId(), event.getStockChange(), event.getReversesKey()))
+                .toList();
+        
+        Map<String, Object> outcomes;
+        try {
+            Map<String, Object> response = productServiceClient.applyStockAdjustments(
+                    new ProductServiceClient.StockAdjustmentRequest(items));
+            outcomes = response != null ? (Map<String, Object>) response.get("data") : null;
+        } catch (Exception e) {
+            events.forEach(event -> markForRetry(event, e.getMessage()));
+            return;
+        }
+        
+        for (OutboxEvent event : events) {
+            Object outcome = outcomes != null ? outcomes.get(event.getIdempotencyKey()) : null;
+            if ("APPLIED".equals(outcome) || "DUPLICATE".equals(outcome)) {
+                markSent(event);
+            } else if ("REJECTED".equals(outcome)) {
+                markFailed(event, "Rejected by product service");
+            } else {
+                markForRetry(event, "No outcome returned by product service");
+            }
+        }
+    }
+    
+    private void deliverCartClear(OutboxEvent event) {
+        try {
+            if (event.getCartItemIds() == null) {
+                // Never clear the whole cart: it may already hold items added after the order
+                markFailed(event, "No cart items recorded for the order");
+                return;
+            }
+            for (String itemId : event.getCartItemIds().split(",")) {
+                if (!itemId.isEmpty()) {
+                    cartServiceClient.removeItem(event.getUserId(), Long.valueOf(itemId));
+                }
+            }
+            markSent(event);
+        } catch (Exception e) {
+            markForRetry(event, e.getMessage());
+        }
+    }
+    
+    private void markSent(OutboxEvent event) {
+        event.setStatus(OutboxEvent.Status.SENT);
+        event.setSentAt(LocalDateTime.now());
+        event.setLastError(null);
+    }
+    
+    private void markForRetry(OutboxEvent event, String error) {
+        int attempts = event.getAttempts() + 1;
+        event.setAttempts(attempts);
+        event.setLastError(truncate(error));
+        if (attempts >= maxAttempts) {
+            markFailed(event, error);
+            return;
+        }
+        Duration backoff = Duration.ofSeconds(1L << Math.min(attempts, 20));
+        event.setNextAttemptAt(LocalDateTime.now().plus(backoff.compareTo(MAX_BACKOFF) < 0 ? backoff : MAX_BACKOFF));
+        log.warn("Outbox event {} ({}) failed, attempt {}: {}", event.getId(), event.getIdempotencyKey(), attempts, error);
+    }
+    
+    private void markFailed(OutboxEvent event, String error) {
+        event.setStatus(OutboxEvent.Status.FAILED);
+        event.setLastError(truncate(error));
+        log.error("Outbox event {} ({}) could not be delivered: {}", event.getId(), event.getIdempotencyKey(), error);
+    }
+    
+    private static String truncate(String error) {
+        return error != null && error.length() > 1000 ? error.substring(0, 1000) : error;
+    }
+}
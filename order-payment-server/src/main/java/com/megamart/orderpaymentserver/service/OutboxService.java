@@ -0,0 +1,85 @@
+package com.megamart.orderpaymentserver.service;
+
+import com.megamart.orderpaymentserver.entity.OutboxEvent;
+import com.megamart.orderpaymentserver.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Records side effects of order changes in the outbox. Must be called inside
+ * the transaction that changes the order, so the event is stored if and only
+ * if the order change commits.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(propagation = Propagation.MANDATORY)
+public class OutboxService {
+    
+    private final OutboxEventRepository outboxRepository;
+    
+    /**
+     * Queue a stock change for a product. The key identifies the change, so
+     * enqueuing the same key twice (e.g. cancel then delete of the same order)
+     * records it once.
+     */
+    public void enqueueStockAdjustment(String idempotencyKey, Long orderId, Long productId, int stockChange) {
+        if (outboxRepository.existsByIdempotencyKey(idempotencyKey)) {
+            log.debug("Stock adjustment {} already queued", idempotencyKey);
+            return;
+        }
+        outboxRepository.save(OutboxEvent.builder()
+                .eventType(OutboxEvent.EventType.STOCK_ADJUSTMENT)
+                .idempotencyKey(idempotencyKey)
+                .orderId(orderId)
+                .productId(productId)
+                .stockChange(stockChange)
+                .nextAttemptAt(LocalDateTime.now())
+                .build());
+    }
+    
+    /**
+     * Queue the undoing of an earlier keyed stock adjustment. Delivered even if
+     * that adjustment never reached product-server, where it then blocks it.
+     */
+    public void enqueueStockRelease(String idempotencyKey, String reversesKey, Long productId, int stockChange) {
+        if (outboxRepository.existsByIdempotencyKey(idempotencyKey)) {
+            return;
+        }
+        outboxRepository.save(OutboxEvent.builder()
+                .eventType(OutboxEvent.EventType.STOCK_ADJUSTMENT)
+                .idempotencyKey(idempotencyKey)
+                .reversesKey(reversesKey)
+                .productId(productId)
+                .stockChange(stockChange)
+                .nextAttemptAt(LocalDateTime.now())
+                .build());
+    }
+    
+    /**
+     * Queue removal of the cart items an order was placed from. Only those
+     * items are removed, so a late delivery leaves anything the user has
+     * added to the cart since untouched.
+     */
+    public void enqueueCartClear(Long orderId, String userId, List<Long> cartItemIds) {
+        String idempotencyKey = "order-" + orderId + "-clear-cart";
+        if (outboxRepository.existsByIdempotencyKey(idempotencyKey)) {
+            return;
+        }
+        outboxRepository.save(OutboxEvent.builder()
+                .eventType(OutboxEvent.EventType.CART_CLEAR)
+                .idempotencyKey(idempotencyKey)
+                .orderId(orderId)
+                .userId(userId)
+                .cartItemIds(cartItemIds.stream().map(String::valueOf).collect(Collectors.joining(",")))
+                .nextAttemptAt(LocalDateTime.now())
+                .build());
+    }
+}
@@ -0,0 +1,96 @@
+package com.megamart.orderpaymentserver.service;
+
+import com.megamart.orderpaymentserver.config.PaymentGatewayProperties;
+import com.megamart.orderpaymentserver.exception.PaymentGatewayBusyException;
+import com.megamart.orderpaymentserver.service.interfaces.PaymentGateway;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caps the number of payments waiting on the provider and bounds each call
+ * with payment.gateway.timeout, so a degraded provider turns into fast 503s
+ * for new payments instead of an ever-growing backlog.
+ *
+ * Callers reserve a slot with {@link #acquire()} before accepting a payment,
+ * then either hand it to {@link #authorize} (which frees the slot when the
+ * provider answers or times out) or give it back with {@link #release()}.
+ */
+@Component
+@Slf4j
+public class PaymentGatewayBulkhead {
+
+    private final PaymentGateway gateway;
+    private final PaymentGatewayProperties properties;
+    private final Semaphore permits;
+
+    private final LongAdder approved = new LongAdder();
+    private final LongAdder declined = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public PaymentGatewayBulkhead(PaymentGateway gateway, PaymentGatewayProperties properties) {
+        this.gateway = gateway;
+        this.properties = properties;
+        this.permits = new Semaphore(properties.getMaxConcurrent());
+    }
+
+    public void acquire() {
+        if (!permits.tryAcquire()) {
+            rejected.increment();
+            throw new PaymentGatewayBusyException(properties.getMaxConcurrent());
+        }
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    /**
+     * Calls the provider using a slot reserved with {@link #acquire()}. Fails with
+     * a {@link TimeoutException} if the provider has not answered in time.
+     */
+    public CompletableFuture<Boolean> authorize(String transactionId, String paymentType, BigDecimal amount) {
+        CompletableFuture<Boolean> result;
+        try {
+            result = gateway.authorize(transactionId, paymentType, amount);
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        return result
+                .orTimeout(properties.getTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                .whenComplete((ok, error) -> {
+                    permits.release();
+                    if (error instanceof TimeoutException) {
+                        timedOut.increment();
+                    } else if (error != null) {
+                        failed.increment();
+                    } else if (ok) {
+                        approved.increment();
+                    } else {
+                        declined.increment();
+                    }
+                });
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("maxConcurrent", properties.getMaxConcurrent());
+        stats.put("inFlight", properties.getMaxConcurrent() - permits.availablePermits());
+        stats.put("approved", approved.sum());
+        stats.put("declined", declined.sum());
+        stats.put("timedOut", timedOut.sum());
+        stats.put("failed", failed.sum());
+        stats.put("rejected", rejected.sum());
+        return stats;
+    }
+}
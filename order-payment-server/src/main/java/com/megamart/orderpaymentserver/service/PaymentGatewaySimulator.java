@@ -0,0 +1,64 @@
+package com.megamart.orderpaymentserver.service;
+
+import com.megamart.orderpaymentserver.config.PaymentGatewayProperties;
+import com.megamart.orderpaymentserver.service.interfaces.PaymentGateway;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local stand-in for the external payment provider, driven by the per-type
+ * profiles in {@link PaymentGatewayProperties}. Latency is log-normal with the
+ * configured median and 99th percentile; a simulated timeout is a call that
+ * never answers, which callers must bound with their own deadline.
+ */
+@Component
+@Slf4j
+public class PaymentGatewaySimulator implements PaymentGateway {
+
+    // z-score of the 99th percentile of a standard normal distribution
+    private static final double Z_99 = 2.3263;
+
+    private final ExecutorService executor;
+    private final PaymentGatewayProperties properties;
+
+    public PaymentGatewaySimulator(@Qualifier("paymentGatewayExecutor") ExecutorService executor,
+                                   PaymentGatewayProperties properties) {
+        this.executor = executor;
+        this.properties = properties;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> authorize(String transactionId, String paymentType, BigDecimal amount) {
+        PaymentGatewayProperties.Profile profile = properties.profileFor(paymentType);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        if (random.nextDouble() < profile.getTimeoutRate()) {
+            log.debug("Simulating provider timeout for transaction {}", transactionId);
+            return new CompletableFuture<>();
+        }
+
+        boolean approved = random.nextDouble() >= profile.getFailureRate();
+        Executor delayed = CompletableFuture.delayedExecutor(sampleLatencyMillis(profile, random),
+                TimeUnit.MILLISECONDS, executor);
+        return CompletableFuture.supplyAsync(() -> approved, delayed);
+    }
+
+    private long sampleLatencyMillis(PaymentGatewayProperties.Profile profile, ThreadLocalRandom random) {
+        Duration median = profile.getLatency() != null ? profile.getLatency() : properties.getLatency();
+        Duration p99 = profile.getLatencyP99() != null ? profile.getLatencyP99() : properties.getLatencyP99();
+        if (p99 == null || median.isZero() || p99.compareTo(median) <= 0) {
+            return median.toMillis();
+        }
+        double sigma = Math.log((double) p99.toMillis() / median.toMillis()) / Z_99;
+        return Math.round(median.toMillis() * Math.exp(sigma * random.nextGaussian()));
+    }
+}
@@ -17,9 +17,13 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
 
 @Service
@@ -32,9 +36,18 @@ public class PaymentService implements PaymentServiceInterface {
     private final OrderRepository orderRepository;
     private final UserDataServiceInterface userDataService;
     private final MappingService mappingService;
+    private final PaymentGatewayBulkhead paymentGatewayBulkhead;
+    private final TransactionTemplate transactionTemplate;
+    private final OrderAnalyticsService analyticsService;
     private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
     
+    /**
+     * Accepts the payment and hands it to the gateway. The payment is stored as
+     * PROCESSING and returned immediately; the gateway's answer is applied later
+     * by {@link #completePayment}. Clients poll {@link #getPaymentStatus}.
+     */
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public OrderResponse.Payment processPayment(PaymentRequest request) {
         log.info("Processing payment for order: {}", request.getOrderId());
         
@@ -45,16 +58,78 @@ public class PaymentService implements PaymentServiceInterface {
         
         OrderResponse.PaymentMethod paymentMethod = getOrCreatePaymentMethod(request, order.getUserId());
         
-        Payment payment = createOrUpdatePayment(order, request, paymentMethod.getId());
-        boolean paymentSuccess = processPaymentWithGateway(paymentMethod);
-        updatePaymentStatus(payment, order, paymentSuccess);
+        // Reserve gateway capacity first so an overloaded provider rejects the
+        // payment before anything is written
+        paymentGatewayBulkhead.acquire();
         
-        Payment savedPayment = paymentRepository.save(payment);
-        orderRepository.save(order);
+        // Only the writes run in a transaction; it commits before the gateway is called
+        Payment savedPayment;
+        try {
+            savedPayment = transactionTemplate.execute(status -> {
+                Order current = findOrderById(request.getOrderId());
+                checkIfCanProcessPayment(current);
+                Payment payment = createOrUpdatePayment(current, request, paymentMethod.getId());
+                current.setPaymentStatus(Order.PaymentStatus.PENDING);
+                Payment saved = paymentRepository.save(payment);
+                orderRepository.save(current);
+                return saved;
+            });
+        } catch (RuntimeException e) {
+            paymentGatewayBulkhead.release();
+            throw e;
+        }
+        
+        Long paymentId = savedPayment.getId();
+        String transactionId = savedPayment.getTransactionId();
+        paymentGatewayBulkhead.authorize(transactionId, paymentMethod.getType(), savedPayment.getAmount())
+                .exceptionally(e -> {
+                    log.error("Payment gateway error for transaction {}: {}", transactionId, e.getMessage());
+                    return false;
+                })
+                .thenAccept(approved -> completePayment(paymentId, transactionId, approved))
+                .exceptionally(e -> {
+                    log.error("Failed to record gateway result for transaction {}: {}", transactionId, e.getMessage());
+                    return null;
+                });
         
         return mappingService.mapToPaymentResponse(savedPayment, paymentMethod);
     }
     
+    /**
+     * Applies the gateway's answer. Ignored when the payment has since been
+     * resubmitted under a different transaction id or is no longer processing.
+     */
+    public void completePayment(Long paymentId, String transactionId, boolean approved) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Payment payment = paymentRepository.findById(paymentId).orElse(null);
+            if (payment == null
+                    || !transactionId.equals(payment.getTransactionId())
+                    || payment.getPaymentStatus() != Payment.PaymentStatus.PROCESSING) {
+                log.warn("Discarding gateway result for stale transaction {}", transactionId);
+                return;
+            }
+            Order order = payment.getOrder();
+            Order.OrderStatus previousStatus = order.getOrderStatus();
+            updatePaymentStatus(payment, order, approved);
+            analyticsService.recordStatusChange(order, previousStatus);
+        });
+        log.info("Payment {} for transaction {}", approved ? "approved" : "declined", transactionId);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, Object> getPaymentStatus(String transactionId) {
+        Payment payment = paymentRepository.findByTransactionId(transactionId)
+                .orElseThrow(() -> new PaymentNotFoundException(transactionId, true));
+        
+        Map<String, Object> status = new HashMap<>();
+        status.put("transactionId", payment.getTransactionId());
+        status.put("orderId", payment.getOrder().getId());
+        status.put("paymentStatus", payment.getPaymentStatus().name());
+        status.put("completed", payment.getPaymentStatus() != Payment.PaymentStatus.PROCESSING);
+        return status;
+    }
+    
     @Override
     @Transactional(readOnly = true)
     public OrderResponse.Payment getPaymentByOrderId(Long orderId) {
@@ -94,6 +169,9 @@ public class PaymentService implements PaymentServiceInterface {
         if (order.getOrderStatus() == Order.OrderStatus.DELIVERED) {
             throw new InvalidOrderStatusException("Cannot process payment for delivered order");
         }
+        if (order.getPayment() != null && order.getPayment().getPaymentStatus() == Payment.PaymentStatus.PROCESSING) {
+            throw new InvalidOrderStatusException("Payment for this order is already being processed");
+        }
     }
     
     private OrderResponse.PaymentMethod getOrCreatePaymentMethod(PaymentRequest request, String userId) {
@@ -145,21 +223,6 @@ public class PaymentService implements PaymentServiceInterface {
         return "TXN-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
     }
     
-    private boolean processPaymentWithGateway(OrderResponse.PaymentMethod paymentMethod) {
-        try {
-            Thread.sleep(1000);
-            return switch (paymentMethod.getType()) {
-                case "COD" -> true;
-                case "UPI" -> Math.random() > 0.1;
-                case "CARD" -> Math.random() > 0.05;
-                default -> true;
-            };
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            return false;
-        }
-    }
-    
     private void updatePaymentStatus(Payment payment, Order order, boolean paymentSuccess) {
         if (paymentSuccess) {
             payment.setPaymentStatus(Payment.PaymentStatus.COMPLETED);
@@ -168,7 +231,6 @@ public class PaymentService implements PaymentServiceInterface {
         } else {
             payment.setPaymentStatus(Payment.PaymentStatus.FAILED);
             order.setPaymentStatus(Order.PaymentStatus.FAILED);
-            throw new PaymentProcessingException(order.getId(), "Payment gateway declined");
         }
     }
     
@@ -1,7 +1,9 @@
 package com.megamart.orderpaymentserver.service.interfaces;
 
+import com.megamart.orderpaymentserver.dto.OrderCursorPage;
 import com.megamart.orderpaymentserver.dto.OrderRequest;
 import com.megamart.orderpaymentserver.dto.OrderResponse;
+import com.megamart.orderpaymentserver.dto.OrderSearchCriteria;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -40,6 +42,15 @@ public interface OrderServiceInterface {
      */
     Page<OrderResponse> getAllOrders(Pageable pageable);
     
+    /**
+     * Search orders (for admin), newest first, one keyset page at a time
+     * @param criteria - Optional status, payment status, user and date filters
+     * @param cursor - nextCursor of the previous page, or null for the first page
+     * @param size - Page size
+     * @return Matching orders and the cursor for the next page
+     */
+    OrderCursorPage searchOrders(OrderSearchCriteria criteria, String cursor, int size);
+    
     /**
      * Update order status (for admin)
      * @param orderId - Order ID
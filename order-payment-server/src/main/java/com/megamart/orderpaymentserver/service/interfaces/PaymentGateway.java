@@ -0,0 +1,22 @@
+package com.megamart.orderpaymentserver.service.interfaces;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Interface for the external payment provider
+ * Implementations must not block the calling thread; the answer is delivered
+ * through the returned future
+ */
+public interface PaymentGateway {
+    
+    /**
+     * Ask the provider to authorize a payment
+     * @param transactionId - Our transaction ID for the payment
+     * @param paymentType - CARD, UPI or COD
+     * @param amount - Amount to charge
+     * @return Completes with true when approved and false when declined; completes
+     *         exceptionally (or never) when the provider fails to answer
+     */
+    CompletableFuture<Boolean> authorize(String transactionId, String paymentType, BigDecimal amount);
+}
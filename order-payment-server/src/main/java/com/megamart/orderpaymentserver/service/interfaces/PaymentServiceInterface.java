@@ -3,6 +3,8 @@ package com.megamart.orderpaymentserver.service.interfaces;
 import com.megamart.orderpaymentserver.dto.PaymentRequest;
 import com.megamart.orderpaymentserver.dto.OrderResponse;
 
+import java.util.Map;
+
 /**
  * Interface for Payment Service
  * This defines what methods the PaymentService should have
@@ -29,4 +31,11 @@ public interface PaymentServiceInterface {
      * @return Payment details
      */
     OrderResponse.Payment getPaymentByTransactionId(String transactionId);
+    
+    /**
+     * Get the processing status of a payment
+     * @param transactionId - Transaction ID
+     * @return Transaction ID, order ID, payment status and whether processing has finished
+     */
+    Map<String, Object> getPaymentStatus(String transactionId);
 } 
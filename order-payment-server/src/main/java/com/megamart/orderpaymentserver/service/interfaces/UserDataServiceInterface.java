@@ -3,6 +3,9 @@ package com.megamart.orderpaymentserver.service.interfaces;
 import com.megamart.orderpaymentserver.dto.OrderRequest;
 import com.megamart.orderpaymentserver.dto.OrderResponse;
 
+import java.util.Collection;
+import java.util.Map;
+
 /**
  * Interface for User Data Service
  * This defines methods for managing user addresses and payment methods
@@ -17,6 +20,14 @@ public interface UserDataServiceInterface {
      */
     OrderResponse.Address getAddress(String userId, Long addressId);
     
+    /**
+     * Get several of a user's addresses in one lookup
+     * @param userId - User ID
+     * @param addressIds - Address IDs
+     * @return Addresses keyed by ID; unknown IDs are absent
+     */
+    Map<Long, OrderResponse.Address> getAddresses(String userId, Collection<Long> addressIds);
+    
     /**
      * Create new address for user
      * @param userId - User ID
@@ -33,6 +44,14 @@ public interface UserDataServiceInterface {
      */
     OrderResponse.PaymentMethod getPaymentMethod(String userId, Long paymentMethodId);
     
+    /**
+     * Get several of a user's payment methods in one lookup
+     * @param userId - User ID
+     * @param paymentMethodIds - Payment method IDs
+     * @return Payment methods keyed by ID; unknown IDs are absent
+     */
+    Map<Long, OrderResponse.PaymentMethod> getPaymentMethods(String userId, Collection<Long> paymentMethodIds);
+    
     /**
      * Create new payment method for user
      * @param userId - User ID
@@ -0,0 +1,86 @@
+package com.megamart.orderpaymentserver.client;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.support.ServiceInstanceListSuppliers;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LeastOutstandingRequestsLoadBalancerTest {
+
+    private static final ServiceInstance FIRST = instance("product-server-1", 9096);
+    private static final ServiceInstance SECOND = instance("product-server-2", 9196);
+    private static final ServiceInstance THIRD = instance("product-server-3", 9296);
+
+    private final LeastOutstandingRequestsLoadBalancer loadBalancer = new LeastOutstandingRequestsLoadBalancer(
+            "product-server", ServiceInstanceListSuppliers.toProvider("product-server", FIRST, SECOND, THIRD));
+
+    @Test
+    void idleInstancesTakeTurns() {
+        Map<Integer, Integer> callsPerPort = new HashMap<>();
+        for (int i = 0; i < 30; i++) {
+            callsPerPort.merge(choose().getServer().getPort(), 1, Integer::sum);
+        }
+        assertEquals(Map.of(9096, 10, 9196, 10, 9296, 10), callsPerPort);
+    }
+
+    @Test
+    void busyInstanceIsAvoidedUntilItsCallsComplete() {
+        Response<ServiceInstance> slow = start(FIRST);
+        start(FIRST);
+        start(SECOND);
+        assertEquals(2, loadBalancer.getOutstanding(FIRST));
+
+        for (int i = 0; i < 5; i++) {
+            Response<ServiceInstance> chosen = choose();
+            assertEquals(THIRD, chosen.getServer());
+            complete(chosen);
+        }
+
+        complete(slow);
+        complete(slow);
+        assertEquals(0, loadBalancer.getOutstanding(FIRST));
+        assertNotEquals(SECOND, choose().getServer());
+    }
+
+    @Test
+    void completionWithoutAStartDoesNotGoNegative() {
+        complete(new DefaultResponse(SECOND));
+        assertEquals(0, loadBalancer.getOutstanding(SECOND));
+    }
+
+    @Test
+    void noInstancesGivesAnEmptyResponse() {
+        LeastOutstandingRequestsLoadBalancer empty = new LeastOutstandingRequestsLoadBalancer(
+                "cart-server", ServiceInstanceListSuppliers.toProvider("cart-server"));
+        assertFalse(empty.choose(new DefaultRequest<>()).block().hasServer());
+    }
+
+    private Response<ServiceInstance> choose() {
+        return loadBalancer.choose(new DefaultRequest<>()).block();
+    }
+
+    private Response<ServiceInstance> start(ServiceInstance instance) {
+        Response<ServiceInstance> response = new DefaultResponse(instance);
+        loadBalancer.onStartRequest(new DefaultRequest<>(), response);
+        return response;
+    }
+
+    private void complete(Response<ServiceInstance> response) {
+        Request<Object> request = new DefaultRequest<>();
+        loadBalancer.onComplete(new CompletionContext<>(CompletionContext.Status.SUCCESS, request, response));
+    }
+
+    private static ServiceInstance instance(String instanceId, int port) {
+        return new DefaultServiceInstance(instanceId, "product-server", "localhost", port, false);
+    }
+}
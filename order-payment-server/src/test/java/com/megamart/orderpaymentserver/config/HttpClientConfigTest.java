@@ -0,0 +1,66 @@
+package com.megamart.orderpaymentserver.config;
+
+import com.sun.net.httpserver.HttpServer;
+import feign.Client;
+import feign.hc5.ApacheHttp5Client;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.openfeign.loadbalancer.FeignBlockingLoadBalancerClient;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class HttpClientConfigTest {
+
+    @Autowired
+    private CloseableHttpClient httpClient;
+
+    @Autowired
+    private Client feignClient;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void feignClientsUseThePooledHttpClient() {
+        Client delegate = feignClient instanceof FeignBlockingLoadBalancerClient loadBalanced
+                ? loadBalanced.getDelegate()
+                : feignClient;
+        assertInstanceOf(ApacheHttp5Client.class, delegate);
+    }
+
+    @Test
+    void sequentialRequestsReuseOneConnection() throws Exception {
+        Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/ping", exchange -> {
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            byte[] body = "pong".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        try {
+            String url = "http://localhost:" + server.getAddress().getPort() + "/ping";
+            for (int i = 0; i < 20; i++) {
+                assertEquals("pong", httpClient.execute(new HttpGet(url), response -> EntityUtils.toString(response.getEntity())));
+            }
+        } finally {
+            server.stop(0);
+        }
+
+        assertEquals(1, clientPorts.size());
+        assertNotNull(meterRegistry.find("httpcomponents.httpclient.pool.total.max").tag("httpclient", "inter-service").gauge());
+    }
+}
@@ -0,0 +1,70 @@
+package com.megamart.orderpaymentserver.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Smoke test against the in-memory H2 test database: checks with H2's EXPLAIN
+ * that the hot order-payment queries can be answered from the indexes declared
+ * on the entities. It proves the indexes exist and match the queries' shape;
+ * it says nothing about the plans MySQL chooses in production.
+ */
+@SpringBootTest
+class OrderIndexUsageTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void userOrderHistory_usesUserCreatedIndex() {
+        // OrderRepository.findByUserIdOrderByCreatedAtDesc(userId, pageable) and its count query
+        assertUsesIndex("idx_orders_user_created",
+                "SELECT * FROM orders WHERE user_id = '42' ORDER BY created_at DESC LIMIT 10");
+        assertUsesIndex("idx_orders_user_created",
+                "SELECT COUNT(*) FROM orders WHERE user_id = '42'");
+    }
+
+    @Test
+    void adminListing_readsCreatedIndexInOrder() {
+        // OrderRepository.findAllByOrderByCreatedAtDesc(pageable)
+        String plan = assertUsesIndex("idx_orders_created",
+                "SELECT * FROM orders ORDER BY created_at DESC LIMIT 10");
+        assertTrue(plan.contains("index sorted"), plan);
+    }
+
+    @Test
+    void adminSearchByStatus_usesStatusCreatedIndex() {
+        // OrderService.searchOrders with a status filter, seeking past the cursor
+        assertUsesIndex("idx_orders_status_created",
+                "SELECT * FROM orders WHERE order_status = 'SHIPPED' AND (created_at < TIMESTAMP '2026-01-01 00:00:00'"
+                        + " OR (created_at = TIMESTAMP '2026-01-01 00:00:00' AND id < 100)) ORDER BY created_at DESC, id DESC LIMIT 21");
+    }
+
+    @Test
+    void trackingHistory_usesOrderCreatedIndex() {
+        // OrderTrackingRepository.findByOrderIdOrderByCreatedAtAsc(orderId)
+        assertUsesIndex("idx_order_tracking_order_created",
+                "SELECT * FROM order_tracking WHERE order_id = 7 ORDER BY created_at");
+    }
+
+    @Test
+    void paymentStatusLookup_usesTransactionIdIndex() {
+        // PaymentRepository.findByTransactionId(transactionId)
+        assertUsesIndex("idx_payments_transaction_id",
+                "SELECT * FROM payments WHERE transaction_id = 'TXN-1'");
+    }
+
+    private String assertUsesIndex(String index, String sql) {
+        List<String> rows = jdbcTemplate.queryForList("EXPLAIN " + sql, String.class);
+        String plan = String.join("\n", rows).toLowerCase(Locale.ROOT);
+        assertTrue(plan.contains(index), () -> "Expected " + index + " in plan:\n" + plan);
+        return plan;
+    }
+}
@@ -0,0 +1,143 @@
+package com.megamart.orderpaymentserver.service;
+
+import com.megamart.orderpaymentserver.client.ServiceGuards;
+import com.megamart.orderpaymentserver.config.ResilienceProperties;
+import com.megamart.orderpaymentserver.dto.OrderRequest;
+import com.megamart.orderpaymentserver.dto.OrderResponse;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpiringStoreTest {
+
+    private static final int THREADS = 16;
+    private static final int OPERATIONS_PER_THREAD = 20_000;
+
+    @Test
+    void entriesExpireAfterTtl() {
+        AtomicLong now = new AtomicLong();
+        ExpiringStore<Long, String> store = new ExpiringStore<>(10, Duration.ofSeconds(10), now::get);
+        store.put(1L, "a");
+        now.addAndGet(Duration.ofSeconds(5).toNanos());
+        store.put(2L, "b");
+
+        now.addAndGet(Duration.ofSeconds(6).toNanos());
+        assertNull(store.get(1L));
+        assertEquals("b", store.get(2L));
+
+        now.addAndGet(Duration.ofSeconds(5).toNanos());
+        store.cleanUp();
+        assertEquals(0, store.size());
+        assertEquals(2L, store.getStats().get("expirations"));
+    }
+
+    @Test
+    void oldestEntriesAreEvictedWhenFull() {
+        ExpiringStore<Long, String> store = new ExpiringStore<>(3, Duration.ofHours(1));
+        for (long i = 1; i <= 5; i++) {
+            store.put(i, "v" + i);
+        }
+        // Rewriting a key moves it to the back of the eviction order
+        store.put(3L, "v3'");
+        store.put(6L, "v6");
+
+        assertEquals(3, store.size());
+        assertNull(store.get(1L));
+        assertNull(store.get(4L));
+        assertEquals("v3'", store.get(3L));
+        assertEquals("v5", store.get(5L));
+        assertEquals("v6", store.get(6L));
+    }
+
+    @Test
+    void concurrentReadersAndWriters_stayBoundedAndConsistent() throws Exception {
+        int maxSize = 1_000;
+        ExpiringStore<Long, Long> store = new ExpiringStore<>(maxSize, Duration.ofMinutes(1));
+        LongAdder reads = new LongAdder();
+        AtomicLong maxObservedSize = new AtomicLong();
+
+        runConcurrently(thread -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                long key = random.nextLong(5_000);
+                if (random.nextInt(4) == 0) {
+                    store.put(key, key * 31);
+                } else {
+                    Long value = store.get(key);
+                    // A read never sees another key's value or a torn write
+                    assertTrue(value == null || value == key * 31);
+                    reads.increment();
+                }
+                maxObservedSize.accumulateAndGet(store.size(), Math::max);
+            }
+        });
+
+        store.cleanUp();
+        Map<String, Object> stats = store.getStats();
+        assertTrue(store.size() <= maxSize, "size " + store.size());
+        // The bound is soft while writers race the cleaner, but never by more than the writers in flight
+        assertTrue(maxObservedSize.get() <= maxSize + THREADS, "peak size " + maxObservedSize.get());
+        assertEquals(reads.sum(), (long) stats.get("hits") + (long) stats.get("misses"));
+        assertTrue((long) stats.get("evictions") > 0);
+    }
+
+    @Test
+    void concurrentCheckouts_getUniqueIdsAndReadTheirOwnWrites() throws Exception {
+        MockUserDataService userDataService = new MockUserDataService(1_000_000, Duration.ofHours(1), 1_000, Duration.ofMinutes(5), Duration.ofSeconds(30),
+                new ServiceGuards(new ResilienceProperties(), Executors.newVirtualThreadPerTaskExecutor()));
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < 2_000; i++) {
+                OrderRequest.PaymentMethod request = new OrderRequest.PaymentMethod();
+                request.setType("UPI");
+                request.setUpiId("user" + thread + "-" + i + "@upi");
+                OrderResponse.PaymentMethod created = userDataService.createPaymentMethod(String.valueOf(thread), request);
+                assertTrue(ids.add(created.getId()));
+                assertEquals(request.getUpiId(),
+                        userDataService.getPaymentMethod(String.valueOf(thread), created.getId()).getUpiId());
+            }
+        });
+
+        assertEquals(THREADS * 2_000, ids.size());
+    }
+
+    private void runConcurrently(StoreTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                task.run(thread);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+    }
+
+    @FunctionalInterface
+    private interface StoreTask {
+        void run(int thread);
+    }
+}
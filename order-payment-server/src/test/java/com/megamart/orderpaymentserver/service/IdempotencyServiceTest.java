@@ -0,0 +1,221 @@
+package com.megamart.orderpaymentserver.service;
+
+import com.megamart.orderpaymentserver.dto.OrderResponse;
+import com.megamart.orderpaymentserver.entity.IdempotencyRecord;
+import com.megamart.orderpaymentserver.entity.Order;
+import com.megamart.orderpaymentserver.exception.IdempotencyKeyReusedException;
+import com.megamart.orderpaymentserver.exception.IdempotentRequestInProgressException;
+import com.megamart.orderpaymentserver.exception.InvalidRequestException;
+import com.megamart.orderpaymentserver.repository.IdempotencyRecordRepository;
+import com.megamart.orderpaymentserver.repository.OrderRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class IdempotencyServiceTest {
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private IdempotencyRecordRepository recordRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void retryWithSameKey_replaysFirstResponseWithoutRunningAgain() {
+        String key = UUID.randomUUID().toString();
+        AtomicInteger executions = new AtomicInteger();
+
+        IdempotencyService.Result<OrderResponse> first = create(key, Map.of("total", 10), executions);
+        IdempotencyService.Result<OrderResponse> retry = create(key, Map.of("total", 10), executions);
+
+        assertEquals(1, executions.get());
+        assertFalse(first.replayed());
+        assertTrue(retry.replayed());
+        assertEquals(first.body(), retry.body());
+    }
+
+    @Test
+    void sameKeyWithDifferentRequest_isRejected() {
+        String key = UUID.randomUUID().toString();
+        AtomicInteger executions = new AtomicInteger();
+        create(key, Map.of("total", 10), executions);
+
+        assertThrows(IdempotencyKeyReusedException.class, () -> create(key, Map.of("total", 11), executions));
+        assertThrows(InvalidRequestException.class, () -> create(" ", Map.of("total", 10), executions));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void concurrentDuplicates_waitForTheInFlightRequest() throws Exception {
+        String key = UUID.randomUUID().toString();
+        AtomicInteger executions = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<IdempotencyService.Result<OrderResponse>>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return idempotencyService.execute("test", key, Map.of("total", 10), OrderResponse.class, () -> {
+                    sleep(300);
+                    return order(executions.incrementAndGet());
+                });
+            }));
+        }
+        start.countDown();
+
+        int replayed = 0;
+        for (Future<IdempotencyService.Result<OrderResponse>> future : futures) {
+            IdempotencyService.Result<OrderResponse> result = future.get(10, TimeUnit.SECONDS);
+            assertEquals(1L, result.body().getId());
+            if (result.replayed()) {
+                replayed++;
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(1, executions.get());
+        assertEquals(THREADS - 1, replayed);
+    }
+
+    @Test
+    void cardFieldsAreLeftOutOfTheRequestHash() {
+        String key = UUID.randomUUID().toString();
+        AtomicInteger executions = new AtomicInteger();
+
+        create(key, cardRequest("4111111111111111", "123", 10), executions);
+        IdempotencyService.Result<OrderResponse> retry = create(key, cardRequest("4111111111111112", "456", 10), executions);
+
+        assertTrue(retry.replayed());
+        assertThrows(IdempotencyKeyReusedException.class,
+                () -> create(key, cardRequest("4111111111111111", "123", 11), executions));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void staleRecord_isTakenOverByExactlyOneConcurrentRequest() throws Exception {
+        String key = UUID.randomUUID().toString();
+        LocalDateTime past = LocalDateTime.now().minusHours(1).truncatedTo(ChronoUnit.MILLIS);
+        recordRepository.save(IdempotencyRecord.builder()
+                .idempotencyKey("test:" + key)
+                .requestHash("from-a-request-that-died")
+                .status(IdempotencyRecord.Status.IN_PROGRESS)
+                .lockedUntil(past)
+                .expiresAt(past.plusDays(1))
+                .updatedAt(past)
+                .build());
+
+        AtomicInteger executions = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<IdempotencyService.Result<OrderResponse>>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return create(key, Map.of("total", 10), executions);
+            }));
+        }
+        start.countDown();
+
+        for (Future<IdempotencyService.Result<OrderResponse>> future : futures) {
+            assertEquals(1L, future.get(10, TimeUnit.SECONDS).body().getId());
+        }
+        executor.shutdown();
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void failedRequest_releasesKeyForRetry() {
+        String key = UUID.randomUUID().toString();
+        assertThrows(IllegalStateException.class, () -> idempotencyService.execute(
+                "test", key, Map.of("total", 10), OrderResponse.class, () -> {
+                    throw new IllegalStateException("product-server down");
+                }));
+
+        AtomicInteger executions = new AtomicInteger();
+        IdempotencyService.Result<OrderResponse> retry = create(key, Map.of("total", 10), executions);
+
+        assertEquals(1, executions.get());
+        assertFalse(retry.replayed());
+    }
+
+    @Test
+    void leaseTakenOverBeforeCompletion_rollsBackTheActionSoOnlyTheNewHolderCreatesTheOrder() {
+        String key = UUID.randomUUID().toString();
+        long ordersBefore = orderRepository.count();
+
+        assertThrows(IdempotentRequestInProgressException.class, () -> idempotencyService.execute(
+                "test", key, Map.of("total", 10), OrderResponse.class, () -> {
+                    orderRepository.save(Order.builder().userId("7").total(new BigDecimal("10.00"))
+                            .paymentType(Order.PaymentType.COD).build());
+                    takeOverInAnotherTransaction("test:" + key);
+                    return order(1);
+                }));
+
+        assertEquals(ordersBefore, orderRepository.count());
+        IdempotencyRecord record = recordRepository.findByIdempotencyKey("test:" + key).orElseThrow();
+        assertEquals(IdempotencyRecord.Status.IN_PROGRESS, record.getStatus());
+        assertNull(record.getResponseBody());
+    }
+
+    // What a retry does once this request's lease has run out
+    private void takeOverInAnotherTransaction(String key) {
+        TransactionTemplate requiresNew = new TransactionTemplate(transactionManager);
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        requiresNew.executeWithoutResult(status -> {
+            IdempotencyRecord held = recordRepository.findByIdempotencyKey(key).orElseThrow();
+            LocalDateTime now = LocalDateTime.now().plusSeconds(1).truncatedTo(ChronoUnit.MILLIS);
+            assertEquals(1, recordRepository.takeOver(key, held.getStatus(), held.getUpdatedAt(), held.getRequestHash(),
+                    IdempotencyRecord.Status.IN_PROGRESS, now.plusMinutes(2), now.plusDays(1), now));
+        });
+    }
+
+    private IdempotencyService.Result<OrderResponse> create(String key, Object request, AtomicInteger executions) {
+        return idempotencyService.execute("test", key, request, OrderResponse.class,
+                () -> order(executions.incrementAndGet()));
+    }
+
+    private static Map<String, Object> cardRequest(String cardNumber, String cvv, int total) {
+        return Map.of("total", total, "newPaymentMethod",
+                Map.of("type", "CARD", "cardNumber", cardNumber, "cvv", cvv, "expiryMonth", "12", "expiryYear", "2030"));
+    }
+
+    private static OrderResponse order(long id) {
+        return OrderResponse.builder().id(id).userId("7").total(new BigDecimal("10.00")).orderStatus("PENDING").build();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
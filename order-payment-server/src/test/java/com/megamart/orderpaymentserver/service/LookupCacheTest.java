@@ -0,0 +1,180 @@
+package com.megamart.orderpaymentserver.service;
+
+import com.megamart.orderpaymentserver.client.ServiceGuards;
+import com.megamart.orderpaymentserver.config.ResilienceProperties;
+import com.megamart.orderpaymentserver.dto.OrderResponse;
+import com.megamart.orderpaymentserver.exception.AddressNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class LookupCacheTest {
+
+    private static final int THREADS = 16;
+
+    private final AtomicLong now = new AtomicLong();
+    private final LookupCache<Long, String> cache =
+            new LookupCache<>(100, Duration.ofMinutes(5), Duration.ofSeconds(30), now::get);
+
+    @Test
+    void foundValuesAreCachedUntilTtl() {
+        AtomicInteger loads = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            assertEquals("v1", cache.get(1L, id -> {
+                loads.incrementAndGet();
+                return Optional.of("v" + id);
+            }));
+        }
+        assertEquals(1, loads.get());
+
+        now.addAndGet(Duration.ofMinutes(5).toNanos());
+        cache.get(1L, id -> {
+            loads.incrementAndGet();
+            return Optional.of("v" + id);
+        });
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void absencesAreCachedForTheNegativeTtl() {
+        AtomicInteger loads = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            assertNull(cache.get(1L, id -> {
+                loads.incrementAndGet();
+                return Optional.empty();
+            }));
+        }
+        assertEquals(1, loads.get());
+        assertEquals(2L, cache.getStats().get("negativeHits"));
+
+        now.addAndGet(Duration.ofSeconds(30).toNanos());
+        assertEquals("v1", cache.get(1L, id -> Optional.of("v" + id)));
+    }
+
+    @Test
+    void failuresAreNotCached() {
+        assertThrows(ResourceAccessException.class,
+                () -> cache.get(1L, id -> { throw new ResourceAccessException("connection refused"); }));
+        assertEquals("v1", cache.get(1L, id -> Optional.of("v" + id)));
+        assertEquals(1L, cache.getStats().get("loadFailures"));
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        List<String> results = runConcurrently(() -> cache.get(1L, id -> {
+            loads.incrementAndGet();
+            awaitCoalesced(THREADS - 1);
+            return Optional.of("v" + id);
+        }));
+
+        assertEquals(1, loads.get());
+        assertTrue(results.stream().allMatch("v1"::equals));
+        Map<String, Object> stats = cache.getStats();
+        assertEquals(1L, stats.get("misses"));
+        assertEquals((long) THREADS - 1, stats.get("coalesced"));
+    }
+
+    @Test
+    void concurrentMissesShareOneFailure() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        List<String> results = runConcurrently(() -> {
+            try {
+                return cache.get(1L, id -> {
+                    loads.incrementAndGet();
+                    awaitCoalesced(THREADS - 1);
+                    throw new ResourceAccessException("timed out");
+                });
+            } catch (ResourceAccessException e) {
+                return e.getMessage();
+            }
+        });
+
+        assertEquals(1, loads.get());
+        assertTrue(results.stream().allMatch("timed out"::equals));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void userDataService_cachesRemoteAddressesAndNotFound() {
+        RestTemplate restTemplate = mock(RestTemplate.class);
+        MockUserDataService userDataService = new MockUserDataService(
+                1_000, Duration.ofHours(1), 1_000, Duration.ofMinutes(5), Duration.ofSeconds(30),
+                new ServiceGuards(new ResilienceProperties(), Executors.newVirtualThreadPerTaskExecutor()));
+        ReflectionTestUtils.setField(userDataService, "restTemplate", restTemplate);
+        when(restTemplate.getForObject(endsWith("/users/42/addresses/7"), eq(Map.class)))
+                .thenReturn(Map.of("id", 7, "userId", "42", "fullName", "Jane Roe", "city", "Pune"));
+        when(restTemplate.getForObject(endsWith("/users/42/addresses/1"), eq(Map.class)))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null));
+        when(restTemplate.getForObject(endsWith("/users/43/addresses/7"), eq(Map.class)))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null));
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals("Jane Roe", userDataService.getAddress("42", 7L).getFullName());
+            // Unknown upstream, so every read falls back to the locally held sample address
+            assertEquals("John Doe", userDataService.getAddress("42", 1L).getFullName());
+        }
+        verify(restTemplate, times(1)).getForObject(endsWith("/users/42/addresses/7"), eq(Map.class));
+        verify(restTemplate, times(1)).getForObject(endsWith("/users/42/addresses/1"), eq(Map.class));
+
+        // Another user's address is never served from the cache
+        assertThrows(AddressNotFoundException.class, () -> userDataService.getAddress("43", 7L));
+        verify(restTemplate).getForObject(endsWith("/users/43/addresses/7"), eq(Map.class));
+
+        // Batch reads only ask the user service for what the cache lacks, and keep only the user's own
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), isNull(), any(ParameterizedTypeReference.class)))
+                .thenReturn(ResponseEntity.ok(List.of(
+                        Map.of("id", 8, "userId", "42", "fullName", "Sam Poe"),
+                        Map.of("id", 9, "userId", "43", "fullName", "Ann Foe"))));
+        Map<Long, OrderResponse.Address> batch = userDataService.getAddresses("42", List.of(7L, 8L, 9L));
+        assertEquals("Jane Roe", batch.get(7L).getFullName());
+        assertEquals("Sam Poe", batch.get(8L).getFullName());
+        assertFalse(batch.containsKey(9L));
+        verify(restTemplate).exchange(endsWith("/users/42/addresses?ids=8,9"), eq(HttpMethod.GET), isNull(), any(ParameterizedTypeReference.class));
+        assertEquals("Sam Poe", userDataService.getAddress("42", 8L).getFullName());
+    }
+
+    private void awaitCoalesced(long waiters) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while ((long) cache.getStats().get("coalesced") < waiters && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private List<String> runConcurrently(Callable<String> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<String>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(task));
+        }
+        List<String> results = new ArrayList<>();
+        for (Future<String> future : futures) {
+            results.add(future.get(30, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+        return results;
+    }
+}
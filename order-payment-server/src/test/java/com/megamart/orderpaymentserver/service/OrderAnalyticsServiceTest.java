@@ -0,0 +1,164 @@
+package com.megamart.orderpaymentserver.service;
+
+import com.megamart.orderpaymentserver.dto.OrderAnalyticsResponse;
+import com.megamart.orderpaymentserver.dto.OrderRequest;
+import com.megamart.orderpaymentserver.dto.PaymentRequest;
+import com.megamart.orderpaymentserver.entity.OrderRollup;
+import com.megamart.orderpaymentserver.exception.InvalidRequestException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class OrderAnalyticsServiceTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderAnalyticsService analyticsService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    private LocalDateTime from;
+    private LocalDateTime to;
+
+    @BeforeEach
+    void setUp() {
+        // Orders other tests saved straight through the repository are folded in here,
+        // so every assertion below compares against a consistent baseline
+        analyticsService.rebuild();
+        from = LocalDateTime.now().minusDays(1);
+        to = LocalDateTime.now().plusDays(1);
+    }
+
+    @Test
+    void orderChanges_updateHourlyAndDailyRollups() {
+        OrderAnalyticsResponse before = daily();
+        OrderAnalyticsResponse beforeHourly = hourly();
+
+        Long confirmed = createOrder("40.00", "COD");
+        Long cancelled = createOrder("25.50", "UPI");
+        Long deleted = createOrder("10.00", "COD");
+        orderService.updateOrderStatus(confirmed, "CONFIRMED");
+        orderService.cancelOrder(cancelled);
+        orderService.deleteOrder(deleted);
+
+        for (OrderAnalyticsResponse[] pair : List.of(
+                new OrderAnalyticsResponse[]{before, daily()},
+                new OrderAnalyticsResponse[]{beforeHourly, hourly()})) {
+            OrderAnalyticsResponse start = pair[0];
+            OrderAnalyticsResponse end = pair[1];
+            assertEquals(start.getOrderCount() + 2, end.getOrderCount());
+            // The cancelled order counts as placed but not towards revenue
+            assertEquals(0, start.getRevenue().add(new BigDecimal("40.00")).compareTo(end.getRevenue()));
+            assertEquals(count(start, "CONFIRMED") + 1, count(end, "CONFIRMED"));
+            assertEquals(count(start, "CANCELLED") + 1, count(end, "CANCELLED"));
+            assertEquals(count(start, "PENDING"), count(end, "PENDING"));
+            assertEquals(mixCount(start, "COD") + 1, mixCount(end, "COD"));
+            assertEquals(mixCount(start, "UPI") + 1, mixCount(end, "UPI"));
+        }
+    }
+
+    @Test
+    void rebuild_matchesIncrementalRollups() {
+        Long confirmed = createOrder("15.00", "CARD");
+        createOrder("8.25", "COD");
+        orderService.updateOrderStatus(confirmed, "CONFIRMED");
+        orderService.updateOrderStatus(confirmed, "PROCESSING");
+        OrderAnalyticsResponse incremental = hourly();
+
+        analyticsService.rebuild();
+
+        assertEquals(incremental, hourly());
+    }
+
+    @Test
+    void approvedPayment_movesOrderToConfirmedInTheRollups() throws InterruptedException {
+        Long orderId = createOrder("30.00", "COD");
+        OrderAnalyticsResponse before = daily();
+
+        OrderRequest.PaymentMethod cod = new OrderRequest.PaymentMethod();
+        cod.setType("COD");
+        String transactionId = paymentService.processPayment(
+                PaymentRequest.builder().orderId(orderId).newPaymentMethod(cod).build()).getTransactionId();
+        awaitCompletion(transactionId);
+
+        // PaymentService.completePayment confirms the order outside OrderService
+        OrderAnalyticsResponse after = daily();
+        assertEquals(count(before, "PENDING") - 1, count(after, "PENDING"));
+        assertEquals(count(before, "CONFIRMED") + 1, count(after, "CONFIRMED"));
+        assertEquals(before.getOrderCount(), after.getOrderCount());
+        assertEquals(0, before.getRevenue().compareTo(after.getRevenue()));
+
+        analyticsService.rebuild();
+        assertEquals(after, daily());
+    }
+
+    @Test
+    void getAnalytics_rejectsInvalidRanges() {
+        LocalDateTime now = LocalDateTime.now();
+        assertThrows(InvalidRequestException.class,
+                () -> analyticsService.getAnalytics(OrderRollup.Granularity.DAY, now, now.minusDays(1)));
+        assertThrows(InvalidRequestException.class,
+                () -> analyticsService.getAnalytics(OrderRollup.Granularity.HOUR, now.minusYears(1), now));
+        assertThrows(InvalidRequestException.class, () -> OrderAnalyticsService.parseGranularity("week"));
+    }
+
+    private OrderAnalyticsResponse daily() {
+        return analyticsService.getAnalytics(OrderRollup.Granularity.DAY, from, to);
+    }
+
+    private OrderAnalyticsResponse hourly() {
+        return analyticsService.getAnalytics(OrderRollup.Granularity.HOUR, from, to);
+    }
+
+    private static long count(OrderAnalyticsResponse response, String status) {
+        OrderAnalyticsResponse.Breakdown breakdown = response.getStatusDistribution().get(status);
+        return breakdown != null ? breakdown.getOrderCount() : 0;
+    }
+
+    private static long mixCount(OrderAnalyticsResponse response, String paymentType) {
+        OrderAnalyticsResponse.Breakdown breakdown = response.getPaymentTypeMix().get(paymentType);
+        return breakdown != null ? breakdown.getOrderCount() : 0;
+    }
+
+    private void awaitCompletion(String transactionId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!Boolean.TRUE.equals(paymentService.getPaymentStatus(transactionId).get("completed"))) {
+            assertTrue(System.currentTimeMillis() < deadline, "payment " + transactionId + " never completed");
+            Thread.sleep(50);
+        }
+    }
+
+    private Long createOrder(String total, String paymentType) {
+        OrderRequest.Address address = new OrderRequest.Address();
+        address.setFullName("Jane Doe");
+        address.setAddressLine1("1 Main Street");
+        address.setPostalCode("10001");
+        address.setPhone("5550100123");
+        OrderRequest.PaymentMethod paymentMethod = new OrderRequest.PaymentMethod();
+        paymentMethod.setType(paymentType);
+        if ("CARD".equals(paymentType)) {
+            paymentMethod.setCardNumber("4111111111111111");
+            paymentMethod.setCvv("123");
+        }
+
+        OrderRequest request = new OrderRequest();
+        request.setUserId("analytics-user");
+        request.setTotal(new BigDecimal(total));
+        request.setPaymentType(paymentType);
+        request.setNewAddress(address);
+        request.setNewPaymentMethod(paymentMethod);
+        request.setItems(List.of(new OrderRequest.OrderItem(21L, 1, new BigDecimal(total))));
+        return orderService.createOrder(request).getId();
+    }
+}
@@ -0,0 +1,144 @@
+package com.megamart.orderpaymentserver.service;
+
+import com.megamart.orderpaymentserver.client.UserServiceClient;
+import com.megamart.orderpaymentserver.dto.OrderResponse;
+import com.megamart.orderpaymentserver.entity.Order;
+import com.megamart.orderpaymentserver.entity.Payment;
+import com.megamart.orderpaymentserver.service.interfaces.UserDataServiceInterface;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderEnrichmentServiceTest {
+
+    private static final long CALL_MILLIS = 300;
+
+    @Mock
+    private UserDataServiceInterface userDataService;
+
+    @Mock
+    private UserServiceClient userServiceClient;
+
+    private ExecutorService executor;
+    private OrderEnrichmentService enrichmentService;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        enrichmentService = new OrderEnrichmentService(userDataService, userServiceClient, new MappingService(),
+                executor, Duration.ofSeconds(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    void toResponse_runsLookupsConcurrently() {
+        when(userDataService.getAddress(any(), anyLong())).thenAnswer(inv -> slow(OrderResponse.Address.builder()
+                .id(7L).fullName("Remote Name").build()));
+        when(userDataService.getPaymentMethod(any(), anyLong())).thenAnswer(inv -> slow(OrderResponse.PaymentMethod.builder()
+                .id(3L).type("CARD").build()));
+        when(userServiceClient.getUserById("42")).thenAnswer(inv -> slow(Map.<String, Object>of(
+                "name", "Jane", "email", "jane@example.com", "phone", "5550100")));
+
+        long start = System.nanoTime();
+        OrderResponse response = enrichmentService.toResponse(order(null), true);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMillis < 2 * CALL_MILLIS, "lookups ran sequentially: " + elapsedMillis + " ms");
+        assertEquals("Remote Name", response.getShippingAddress().getFullName());
+        assertEquals("CARD", response.getPayment().getPaymentMethod().getType());
+        assertEquals("jane@example.com", response.getCustomerEmail());
+    }
+
+    @Test
+    void toResponse_skipsAddressLookupWhenOrderHasShippingSnapshot() {
+        OrderResponse response = enrichmentService.toResponse(order("Stored Name"), false);
+
+        verify(userDataService, never()).getAddress(any(), anyLong());
+        verifyNoInteractions(userServiceClient);
+        assertEquals("Stored Name", response.getShippingAddress().getFullName());
+    }
+
+    @Test
+    void toResponse_leavesSlowDependencyEmptyAfterTimeout() {
+        enrichmentService = new OrderEnrichmentService(userDataService, userServiceClient, new MappingService(),
+                executor, Duration.ofMillis(100));
+        when(userServiceClient.getUserById("42")).thenAnswer(inv -> slow(Map.<String, Object>of("name", "Jane")));
+
+        long start = System.nanoTime();
+        OrderResponse response = enrichmentService.toResponse(order("Stored Name"), true);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMillis < CALL_MILLIS, "timeout not applied: " + elapsedMillis + " ms");
+        assertNull(response.getCustomerName());
+        assertEquals("Stored Name", response.getShippingAddress().getFullName());
+    }
+
+    @Test
+    void toResponses_fetchesAddressesAndPaymentMethodsOncePerPage() {
+        when(userDataService.getAddresses(eq("42"), any())).thenReturn(Map.of(
+                7L, OrderResponse.Address.builder().id(7L).fullName("Remote Name").build()));
+        when(userDataService.getPaymentMethods(eq("42"), any())).thenReturn(Map.of(
+                3L, OrderResponse.PaymentMethod.builder().id(3L).type("CARD").build()));
+
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            orders.add(order(i % 2 == 0 ? null : "Stored Name"));
+        }
+        List<OrderResponse> responses = enrichmentService.toResponses(orders);
+
+        verify(userDataService).getAddresses("42", Set.of(7L));
+        verify(userDataService).getPaymentMethods("42", Set.of(3L));
+        verify(userDataService, never()).getAddress(any(), anyLong());
+        verify(userDataService, never()).getPaymentMethod(any(), anyLong());
+        assertEquals(20, responses.size());
+        assertEquals("Remote Name", responses.get(0).getShippingAddress().getFullName());
+        assertEquals("Stored Name", responses.get(1).getShippingAddress().getFullName());
+        assertEquals("CARD", responses.get(1).getPayment().getPaymentMethod().getType());
+    }
+
+    private static <T> T slow(T value) throws InterruptedException {
+        Thread.sleep(CALL_MILLIS);
+        return value;
+    }
+
+    private static Order order(String shippingFullName) {
+        Order order = Order.builder()
+                .id(1L)
+                .userId("42")
+                .total(new BigDecimal("10.00"))
+                .paymentType(Order.PaymentType.CARD)
+                .shippingAddressId(7L)
+                .shippingFullName(shippingFullName)
+                .build();
+        order.setPayment(Payment.builder()
+                .order(order)
+                .amount(new BigDecimal("10.00"))
+                .paymentMethodId(3L)
+                .paymentStatus(Payment.PaymentStatus.COMPLETED)
+                .build());
+        return order;
+    }
+}
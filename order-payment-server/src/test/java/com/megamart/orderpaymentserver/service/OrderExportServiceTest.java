@@ -0,0 +1,114 @@
+package com.megamart.orderpaymentserver.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.megamart.orderpaymentserver.dto.OrderExportRow;
+import com.megamart.orderpaymentserver.entity.Order;
+import com.megamart.orderpaymentserver.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+class OrderExportServiceTest {
+
+    private static final int ORDERS = 1200;
+
+    @Autowired
+    private OrderExportService exportService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < ORDERS; i++) {
+            orders.add(Order.builder()
+                    .userId("user-" + i)
+                    .total(new BigDecimal("10.50"))
+                    .paymentType(Order.PaymentType.CARD)
+                    .shippingFullName(i == 0 ? "Doe, \"JD\" Jane" : "Customer " + i)
+                    .build());
+        }
+        orderRepository.saveAll(orders);
+    }
+
+    @Test
+    void exportOrders_writesOneJsonObjectPerLine() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = exportService.exportOrders(OrderExportService.Format.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(ORDERS, count);
+        assertEquals(ORDERS, lines.length);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals("user-0", first.get("userId").asText());
+        assertEquals("Doe, \"JD\" Jane", first.get("shippingAddress").get("fullName").asText());
+    }
+
+    @Test
+    void exportOrders_writesCsvWithHeaderAndQuotedFields() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.exportOrders(OrderExportService.Format.CSV, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(ORDERS + 1, lines.length);
+        assertTrue(lines[0].startsWith("id,userId,total,orderStatus"));
+        assertTrue(lines[1].contains(",\"Doe, \"\"JD\"\" Jane\","), lines[1]);
+    }
+
+    @Test
+    void writeSimpleOrdersList_keepsPageEnvelope() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.writeSimpleOrdersList(out);
+
+        JsonNode body = objectMapper.readTree(out.toByteArray());
+        assertEquals(ORDERS, body.get("content").size());
+        assertEquals(ORDERS, body.get("totalElements").asInt());
+        assertEquals("PENDING", body.get("content").get(0).get("orderStatus").asText());
+    }
+
+    @Test
+    void writeSimpleOrdersList_closesEnvelopeWithAnErrorWhenReadingFailsPartWay() throws Exception {
+        OrderRepository failingRepository = mock(OrderRepository.class);
+        when(failingRepository.streamAllForExport()).thenReturn(Stream.of(1L, 2L, 3L).map(id -> {
+            if (id == 3L) {
+                throw new QueryTimeoutException("cursor timed out");
+            }
+            return new OrderExportRow(id, "user-" + id, new BigDecimal("5.00"), Order.OrderStatus.PENDING,
+                    Order.PaymentType.COD, Order.PaymentStatus.PENDING, null, null,
+                    null, null, null, null, null, null, null, null);
+        }));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = new OrderExportService(failingRepository, objectMapper).writeSimpleOrdersList(out);
+
+        JsonNode body = objectMapper.readTree(out.toByteArray());
+        assertEquals(2, count);
+        assertEquals(2, body.get("content").size());
+        assertFalse(body.get("success").asBoolean());
+        assertTrue(body.get("error").asText().contains("incomplete"));
+        assertNull(body.get("totalElements"));
+    }
+}
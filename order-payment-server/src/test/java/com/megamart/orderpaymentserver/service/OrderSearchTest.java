@@ -0,0 +1,92 @@
+package com.megamart.orderpaymentserver.service;
+
+import com.megamart.orderpaymentserver.dto.OrderCursorPage;
+import com.megamart.orderpaymentserver.dto.OrderResponse;
+import com.megamart.orderpaymentserver.dto.OrderSearchCriteria;
+import com.megamart.orderpaymentserver.entity.Order;
+import com.megamart.orderpaymentserver.exception.InvalidRequestException;
+import com.megamart.orderpaymentserver.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class OrderSearchTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private String userId;
+
+    @BeforeEach
+    void setUp() {
+        userId = "search-" + UUID.randomUUID();
+        for (int i = 0; i < 25; i++) {
+            Order order = Order.builder()
+                    .userId(userId)
+                    .total(new BigDecimal("10.00"))
+                    .paymentType(Order.PaymentType.COD)
+                    .orderStatus(i % 3 == 0 ? Order.OrderStatus.SHIPPED : Order.OrderStatus.PENDING)
+                    .build();
+            orderRepository.save(order);
+        }
+    }
+
+    @Test
+    void searchOrders_walksEveryMatchNewestFirstWithoutRepeats() {
+        List<Order> expected = orderRepository.findByUserIdOrderByCreatedAtDesc(userId).stream()
+                .sorted(Comparator.comparing(Order::getCreatedAt).thenComparing(Order::getId).reversed())
+                .toList();
+
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            OrderCursorPage page = orderService.searchOrders(criteria(null), cursor, 10);
+            page.getContent().forEach(order -> seen.add(order.getId()));
+            cursor = page.getNextCursor();
+            pages++;
+            assertEquals(page.isHasNext(), cursor != null);
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(expected.stream().map(Order::getId).toList(), seen);
+    }
+
+    @Test
+    void searchOrders_appliesStatusFilterAcrossPages() {
+        OrderCursorPage first = orderService.searchOrders(criteria("shipped"), null, 5);
+        OrderCursorPage second = orderService.searchOrders(criteria("shipped"), first.getNextCursor(), 5);
+
+        assertEquals(5, first.getSize());
+        assertEquals(4, second.getSize());
+        assertFalse(second.isHasNext());
+        assertNull(second.getNextCursor());
+        for (OrderResponse order : first.getContent()) {
+            assertEquals("SHIPPED", order.getOrderStatus());
+        }
+    }
+
+    @Test
+    void searchOrders_rejectsBadInput() {
+        assertThrows(InvalidRequestException.class, () -> orderService.searchOrders(criteria("lost"), null, 10));
+        assertThrows(InvalidRequestException.class, () -> orderService.searchOrders(criteria(null), "not-a-cursor", 10));
+        assertThrows(InvalidRequestException.class, () -> orderService.searchOrders(criteria(null), null, 500));
+    }
+
+    private OrderSearchCriteria criteria(String status) {
+        return OrderSearchCriteria.builder().userId(userId).status(status).build();
+    }
+}
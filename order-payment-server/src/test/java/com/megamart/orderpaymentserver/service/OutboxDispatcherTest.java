@@ -0,0 +1,230 @@
+package com.megamart.orderpaymentserver.service;
+
+import com.megamart.orderpaymentserver.client.CartServiceClient;
+import com.megamart.orderpaymentserver.client.ProductServiceClient;
+import com.megamart.orderpaymentserver.dto.OrderRequest;
+import com.megamart.orderpaymentserver.dto.OrderResponse;
+import com.megamart.orderpaymentserver.entity.Order;
+import com.megamart.orderpaymentserver.entity.OrderItem;
+import com.megamart.orderpaymentserver.entity.OutboxEvent;
+import com.megamart.orderpaymentserver.exception.InvalidRequestException;
+import com.megamart.orderpaymentserver.repository.OrderRepository;
+import com.megamart.orderpaymentserver.repository.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+class OutboxDispatcherTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OutboxDispatcher dispatcher;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @MockitoBean
+    private ProductServiceClient productServiceClient;
+
+    @MockitoBean
+    private CartServiceClient cartServiceClient;
+
+    @BeforeEach
+    void setUp() {
+        outboxRepository.deleteAll();
+    }
+
+    @Test
+    void cancelAndDelete_queueEachRestockOnceAndDispatchDeliversThemInOneBatch() {
+        Long orderId = saveOrderWithItems();
+        when(productServiceClient.applyStockAdjustments(any())).thenAnswer(inv -> applied(inv.getArgument(0)));
+
+        orderService.cancelOrder(orderId);
+        orderService.deleteOrder(orderId);
+
+        verifyNoInteractions(productServiceClient);
+        assertEquals(2, outboxRepository.countByStatus(OutboxEvent.Status.PENDING));
+
+        dispatcher.dispatch();
+
+        verify(productServiceClient, times(1)).applyStockAdjustments(any());
+        assertEquals(2, outboxRepository.countByStatus(OutboxEvent.Status.SENT));
+    }
+
+    @Test
+    void remoteCallsRunOutsideTheTransactionAndClaimedEventsAreNotRedelivered() {
+        Long orderId = saveOrderWithItems();
+        when(productServiceClient.applyStockAdjustments(any())).thenAnswer(inv -> {
+            assertFalse(TransactionSynchronizationManager.isActualTransactionActive());
+            // Another dispatcher running now must neither block on the rows nor pick them up
+            dispatcher.dispatch();
+            return applied(inv.getArgument(0));
+        });
+
+        orderService.cancelOrder(orderId);
+        dispatcher.dispatch();
+
+        verify(productServiceClient, times(1)).applyStockAdjustments(any());
+        assertEquals(2, outboxRepository.countByStatus(OutboxEvent.Status.SENT));
+    }
+
+    @Test
+    void failedDelivery_isRetriedLaterWithBackoff() {
+        Long orderId = saveOrderWithItems();
+        when(productServiceClient.applyStockAdjustments(any())).thenThrow(new RuntimeException("product-server down"));
+
+        orderService.cancelOrder(orderId);
+        dispatcher.dispatch();
+        dispatcher.dispatch();
+
+        verify(productServiceClient, times(1)).applyStockAdjustments(any());
+        for (OutboxEvent event : outboxRepository.findAll()) {
+            assertEquals(OutboxEvent.Status.PENDING, event.getStatus());
+            assertEquals(1, event.getAttempts());
+            assertEquals("product-server down", event.getLastError());
+            assertTrue(event.getNextAttemptAt().isAfter(LocalDateTime.now()));
+        }
+    }
+
+    @Test
+    void createOrderFromCart_clearsCartThroughOutbox() {
+        stubCart("7");
+
+        OrderResponse order = orderService.createOrderFromCart("7", address(), cod());
+
+        verify(cartServiceClient, never()).removeItem(any(), any());
+        verify(productServiceClient, never()).updateStock(any(), any());
+        dispatcher.dispatch();
+        // Only the item the order was placed from; anything added to the cart since stays
+        verify(cartServiceClient).removeItem("7", 101L);
+        verify(cartServiceClient, times(1)).removeItem(any(), any());
+        OutboxEvent event = outboxRepository.findAll().get(0);
+        assertEquals(OutboxEvent.EventType.CART_CLEAR, event.getEventType());
+        assertEquals(order.getId(), event.getOrderId());
+        assertEquals(OutboxEvent.Status.SENT, event.getStatus());
+    }
+
+    @Test
+    void createOrderFromCart_releasesReservedStockThroughOutboxWhenTheTransactionRollsBackAfterTheOrderIsWritten() {
+        stubCart("8");
+
+        // The order is written, then the surrounding transaction fails to commit
+        transactionTemplate.executeWithoutResult(status -> {
+            orderService.createOrderFromCart("8", address(), cod());
+            status.setRollbackOnly();
+        });
+
+        ArgumentCaptor<ProductServiceClient.StockAdjustmentRequest> reservation =
+                ArgumentCaptor.forClass(ProductServiceClient.StockAdjustmentRequest.class);
+        verify(productServiceClient).applyStockAdjustments(reservation.capture());
+        ProductServiceClient.StockAdjustmentItem reserved = reservation.getValue().getItems().get(0);
+        assertEquals(-2, reserved.getStockChange());
+        assertReleaseQueuedFor(reserved);
+
+        dispatcher.dispatch();
+
+        verify(productServiceClient, times(2)).applyStockAdjustments(reservation.capture());
+        ProductServiceClient.StockAdjustmentItem released = reservation.getValue().getItems().get(0);
+        assertEquals(2, released.getStockChange());
+        assertEquals(reserved.getIdempotencyKey(), released.getReverses());
+        assertEquals(OutboxEvent.Status.SENT, outboxRepository.findAll().get(0).getStatus());
+        verify(productServiceClient, never()).updateStock(any(), any());
+    }
+
+    @Test
+    void createOrderFromCart_releasesAReservationWhoseCallFailedAfterItMayHaveBeenApplied() {
+        stubCart("9");
+        doThrow(new RuntimeException("Read timed out")).when(productServiceClient).applyStockAdjustments(any());
+
+        assertThrows(InvalidRequestException.class,
+                () -> orderService.createOrderFromCart("9", address(), cod()));
+
+        ArgumentCaptor<ProductServiceClient.StockAdjustmentRequest> reservation =
+                ArgumentCaptor.forClass(ProductServiceClient.StockAdjustmentRequest.class);
+        verify(productServiceClient).applyStockAdjustments(reservation.capture());
+        assertReleaseQueuedFor(reservation.getValue().getItems().get(0));
+    }
+
+    private void assertReleaseQueuedFor(ProductServiceClient.StockAdjustmentItem reserved) {
+        List<OutboxEvent> events = outboxRepository.findAll();
+        assertEquals(1, events.size());
+        OutboxEvent release = events.get(0);
+        assertEquals(OutboxEvent.EventType.STOCK_ADJUSTMENT, release.getEventType());
+        assertEquals(OutboxEvent.Status.PENDING, release.getStatus());
+        assertEquals(11L, release.getProductId());
+        assertEquals(2, release.getStockChange());
+        assertEquals(reserved.getIdempotencyKey(), release.getReversesKey());
+    }
+
+    private void stubCart(String userId) {
+        CartServiceClient.CartItem item = new CartServiceClient.CartItem();
+        item.setId(101L);
+        item.setProductId(11L);
+        item.setQuantity(2);
+        item.setLineTotal(20.0);
+        CartServiceClient.CartResponse cart = new CartServiceClient.CartResponse();
+        cart.setItems(List.of(item));
+        cart.setTotalPrice(20.0);
+        when(cartServiceClient.getCart(userId)).thenReturn(cart);
+        when(productServiceClient.applyStockAdjustments(any())).thenAnswer(inv -> applied(inv.getArgument(0)));
+    }
+
+    private static OrderRequest.Address address() {
+        OrderRequest.Address address = new OrderRequest.Address();
+        address.setFullName("Jane Doe");
+        address.setAddressLine1("1 Main Street");
+        address.setPostalCode("10001");
+        address.setPhone("5550100123");
+        return address;
+    }
+
+    private static OrderRequest.PaymentMethod cod() {
+        OrderRequest.PaymentMethod cod = new OrderRequest.PaymentMethod();
+        cod.setType("COD");
+        return cod;
+    }
+
+    private Long saveOrderWithItems() {
+        Order order = Order.builder()
+                .userId("1")
+                .total(new BigDecimal("30.00"))
+                .paymentType(Order.PaymentType.COD)
+                .build();
+        order.setOrderItems(List.of(
+                OrderItem.builder().order(order).productId(11L).quantity(2).lineTotal(new BigDecimal("20.00")).build(),
+                OrderItem.builder().order(order).productId(12L).quantity(1).lineTotal(new BigDecimal("10.00")).build()));
+        return orderRepository.save(order).getId();
+    }
+
+    private static Map<String, Object> applied(ProductServiceClient.StockAdjustmentRequest request) {
+        Map<String, Object> outcomes = new HashMap<>();
+        for (ProductServiceClient.StockAdjustmentItem item : request.getItems()) {
+            outcomes.put(item.getIdempotencyKey(), "APPLIED");
+        }
+        return Map.of("success", true, "data", outcomes);
+    }
+}
@@ -0,0 +1,74 @@
+package com.megamart.orderpaymentserver.service;
+
+import com.megamart.orderpaymentserver.config.PaymentGatewayProperties;
+import com.megamart.orderpaymentserver.exception.PaymentGatewayBusyException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentGatewayBulkheadTest {
+
+    private ExecutorService executor;
+    private PaymentGatewayProperties properties;
+    private PaymentGatewayBulkhead bulkhead;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        properties = new PaymentGatewayProperties();
+        properties.setLatency(Duration.ofMillis(20));
+        properties.setTimeout(Duration.ofMillis(200));
+        properties.setMaxConcurrent(2);
+        properties.getProfiles().put("CARD", new PaymentGatewayProperties.Profile(null, null, 1.0, 0.0));
+        properties.getProfiles().put("UPI", new PaymentGatewayProperties.Profile(null, null, 0.0, 1.0));
+        bulkhead = new PaymentGatewayBulkhead(new PaymentGatewaySimulator(executor, properties), properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    void authorize_appliesPerTypeFailureProfile() throws Exception {
+        bulkhead.acquire();
+        assertFalse(bulkhead.authorize("TXN-1", "CARD", BigDecimal.TEN).get(1, TimeUnit.SECONDS));
+
+        bulkhead.acquire();
+        assertTrue(bulkhead.authorize("TXN-2", "COD", BigDecimal.TEN).get(1, TimeUnit.SECONDS));
+
+        assertEquals(1L, bulkhead.getStats().get("declined"));
+        assertEquals(1L, bulkhead.getStats().get("approved"));
+        assertEquals(0, bulkhead.getStats().get("inFlight"));
+    }
+
+    @Test
+    void acquire_rejectsWhenProviderIsSaturatedAndRecoversAfterTimeout() {
+        bulkhead.acquire();
+        CompletableFuture<Boolean> first = bulkhead.authorize("TXN-1", "UPI", BigDecimal.TEN);
+        bulkhead.acquire();
+        CompletableFuture<Boolean> second = bulkhead.authorize("TXN-2", "UPI", BigDecimal.TEN);
+
+        assertThrows(PaymentGatewayBusyException.class, () -> bulkhead.acquire());
+        assertEquals(1L, bulkhead.getStats().get("rejected"));
+
+        ExecutionException timeout = assertThrows(ExecutionException.class, () -> first.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, timeout.getCause());
+        assertThrows(ExecutionException.class, () -> second.get(1, TimeUnit.SECONDS));
+
+        bulkhead.acquire();
+        bulkhead.release();
+        assertEquals(2L, bulkhead.getStats().get("timedOut"));
+    }
+}
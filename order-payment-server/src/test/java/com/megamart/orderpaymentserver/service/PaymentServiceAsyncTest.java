@@ -0,0 +1,66 @@
+package com.megamart.orderpaymentserver.service;
+
+import com.megamart.orderpaymentserver.dto.OrderRequest;
+import com.megamart.orderpaymentserver.dto.OrderResponse;
+import com.megamart.orderpaymentserver.dto.PaymentRequest;
+import com.megamart.orderpaymentserver.entity.Order;
+import com.megamart.orderpaymentserver.exception.InvalidOrderStatusException;
+import com.megamart.orderpaymentserver.repository.OrderRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class PaymentServiceAsyncTest {
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Test
+    void processPayment_returnsBeforeGatewayAnswersAndCompletesLater() throws Exception {
+        Long orderId = orderRepository.save(Order.builder()
+                .userId("1")
+                .total(new BigDecimal("49.99"))
+                .paymentType(Order.PaymentType.COD)
+                .build()).getId();
+
+        OrderRequest.PaymentMethod cod = new OrderRequest.PaymentMethod();
+        cod.setType("COD");
+        PaymentRequest request = PaymentRequest.builder().orderId(orderId).newPaymentMethod(cod).build();
+
+        long start = System.nanoTime();
+        OrderResponse.Payment accepted = paymentService.processPayment(request);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals("PROCESSING", accepted.getPaymentStatus());
+        assertNotNull(accepted.getTransactionId());
+        assertTrue(elapsedMillis < 1000, "request waited for the gateway: " + elapsedMillis + " ms");
+        assertThrows(InvalidOrderStatusException.class, () -> paymentService.processPayment(request));
+
+        Map<String, Object> status = awaitCompletion(accepted.getTransactionId());
+        assertEquals("COMPLETED", status.get("paymentStatus"));
+        assertEquals(orderId, status.get("orderId"));
+
+        Order order = orderRepository.findById(orderId).orElseThrow();
+        assertEquals(Order.PaymentStatus.COMPLETED, order.getPaymentStatus());
+        assertEquals(Order.OrderStatus.CONFIRMED, order.getOrderStatus());
+    }
+
+    private Map<String, Object> awaitCompletion(String transactionId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        Map<String, Object> status = paymentService.getPaymentStatus(transactionId);
+        while (!Boolean.TRUE.equals(status.get("completed")) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            status = paymentService.getPaymentStatus(transactionId);
+        }
+        return status;
+    }
+}
@@ -0,0 +1,116 @@
+package com.megamart.productserver.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.megamart.productserver.dto.ProductDTO;
+import com.megamart.productserver.dto.ProductReviewDTO;
+import com.megamart.productserver.service.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response envelope construction plus Jackson serialization for a product page,
+ * i.e. the work ProductController does after the service returns. The controller
+ * is called through getAllProducts with a service that hands back a fixed page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductResponseBenchmark {
+
+    @Param({ "10", "30" })
+    private int pageSize;
+
+    private ProductController controller;
+    private ObjectMapper objectMapper;
+    private Page<ProductDTO> page;
+
+    @Setup
+    public void setUp() {
+        // Same modules Spring Boot registers (JSR-310 for the timestamp field)
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        List<ProductDTO> products = new ArrayList<>();
+        for (long id = 1; id <= pageSize; id++) {
+            products.add(product(id));
+        }
+        page = new PageImpl<>(products, PageRequest.of(0, pageSize), 10_000);
+        controller = new ProductController(new FixedPageProductService(page));
+    }
+
+    @Benchmark
+    public ResponseEntity<Map<String, Object>> buildResponse() {
+        return controller.getAllProducts(0, pageSize, "id", "asc", "full");
+    }
+
+    @Benchmark
+    public byte[] buildAndSerializeResponse() throws Exception {
+        return objectMapper.writeValueAsBytes(controller.getAllProducts(0, pageSize, "id", "asc", "full").getBody());
+    }
+
+    private static final class FixedPageProductService extends ProductService {
+
+        private final Page<ProductDTO> page;
+
+        FixedPageProductService(Page<ProductDTO> page) {
+            super(null, null, null, null, null, null);
+            this.page = page;
+        }
+
+        @Override
+        public Page<ProductDTO> getAllProducts(int page, int size, String sortBy, String sortDirection) {
+            return this.page;
+        }
+    }
+
+    private static ProductDTO product(Long id) {
+        ProductDTO dto = new ProductDTO();
+        dto.setId(id);
+        dto.setTitle("Benchmark product " + id);
+        dto.setDescription("A reasonably long product description used to exercise string copying. ".repeat(4));
+        dto.setCategory("electronics");
+        dto.setBrand("Acme");
+        dto.setSku("SKU-" + id);
+        dto.setPrice(new BigDecimal("199.99"));
+        dto.setDiscountPercentage(12.5);
+        dto.setRating(4.4);
+        dto.setStock(42);
+        dto.setAvailabilityStatus("In Stock");
+        dto.setThumbnail("https://cdn.example.com/products/" + id + "/thumb.png");
+        List<String> tags = new ArrayList<>();
+        List<String> images = new ArrayList<>();
+        List<ProductReviewDTO> reviews = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            tags.add("tag-" + i);
+            images.add("https://cdn.example.com/products/" + id + "/" + i + ".png");
+            reviews.add(new ProductReviewDTO((long) i, 1 + i, "Review comment " + i, "Reviewer " + i,
+                "reviewer" + i + "@example.com", LocalDateTime.now()));
+        }
+        dto.setTags(tags);
+        dto.setImages(images);
+        dto.setReviews(reviews);
+        return dto;
+    }
+}
@@ -0,0 +1,102 @@
+package com.megamart.productserver.service;
+
+import com.megamart.productserver.dto.ProductDTO;
+import com.megamart.productserver.entity.Product;
+import com.megamart.productserver.entity.ProductImage;
+import com.megamart.productserver.entity.ProductReview;
+import com.megamart.productserver.entity.ProductTag;
+import com.megamart.productserver.repository.ProductRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity-to-DTO mapping cost for one product with its tags, images and reviews,
+ * measured through getProductById with a cache that keeps nothing, so every
+ * call loads and maps the entity.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductMappingBenchmark {
+
+    @Param({ "3", "20" })
+    private int reviewsPerProduct;
+
+    private ProductService productService;
+    private Product product;
+
+    @Setup
+    public void setUp() {
+        product = product(1L, reviewsPerProduct);
+        productService = new ProductService(repositoryReturning(product), null, null,
+            new ProductCache(0, Duration.ZERO), null, null);
+    }
+
+    @Benchmark
+    public ProductDTO convertToDTO() {
+        return productService.getProductById(1L).orElseThrow();
+    }
+
+    // Only findById is reached on the read path
+    private static ProductRepository repositoryReturning(Product product) {
+        return (ProductRepository) Proxy.newProxyInstance(ProductRepository.class.getClassLoader(),
+            new Class<?>[] { ProductRepository.class }, (proxy, method, args) -> {
+                if (method.getName().equals("findById")) {
+                    return Optional.of(product);
+                }
+                throw new UnsupportedOperationException(method.getName());
+            });
+    }
+
+    static Product product(Long id, int reviews) {
+        Product product = new Product();
+        product.setId(id);
+        product.setTitle("Benchmark product " + id);
+        product.setDescription("A reasonably long product description used to exercise string copying. ".repeat(4));
+        product.setCategory("electronics");
+        product.setBrand("Acme");
+        product.setSku("SKU-" + id);
+        product.setPrice(new BigDecimal("199.99"));
+        product.setDiscountPercentage(12.5);
+        product.setRating(4.4);
+        product.setStock(42);
+        product.setThumbnail("https://cdn.example.com/products/" + id + "/thumb.png");
+
+        List<ProductTag> tags = new ArrayList<>();
+        List<ProductImage> images = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            tags.add(new ProductTag((long) i, "tag-" + i, product, null, null));
+            images.add(new ProductImage((long) i, "https://cdn.example.com/products/" + id + "/" + i + ".png", i == 0, product, null, null));
+        }
+        List<ProductReview> reviewList = new ArrayList<>();
+        for (int i = 0; i < reviews; i++) {
+            reviewList.add(new ProductReview((long) i, 1 + i % 5, "Review comment " + i, "Reviewer " + i,
+                "reviewer" + i + "@example.com", LocalDateTime.now(), product, null, null));
+        }
+        product.setTags(tags);
+        product.setImages(images);
+        product.setReviews(reviewList);
+        return product;
+    }
+}
@@ -0,0 +1,109 @@
+package com.megamart.productserver.service;
+
+import com.megamart.productserver.ProductServerApplication;
+import com.megamart.productserver.dto.ProductDTO;
+import com.megamart.productserver.dto.ProductSearchRequest;
+import com.megamart.productserver.dto.ProductSummaryDTO;
+import com.megamart.productserver.repository.ProductRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keyword search against an embedded H2 catalog of configurable size: the
+ * inverted-index path (full and summary views) versus the LIKE query it replaced.
+ * The dataset size is set with -p datasetSize=N.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductSearchBenchmark {
+
+    private static final String[] WORDS = {
+        "wireless", "mouse", "keyboard", "laptop", "phone", "case", "charger", "cable", "stand", "monitor",
+        "gaming", "office", "portable", "ergonomic", "compact", "premium", "budget", "smart", "audio", "camera"
+    };
+
+    @Param({ "10000", "100000" })
+    private int datasetSize;
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private ProductRepository productRepository;
+    private ProductSearchRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ProductServerApplication.class)
+            .web(WebApplicationType.NONE)
+            .properties(
+                "spring.datasource.url=jdbc:h2:mem:jmh;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "spring.jpa.properties.hibernate.generate_statistics=false",
+                "logging.level.root=WARN")
+            .run();
+        productService = context.getBean(ProductService.class);
+        productRepository = context.getBean(ProductRepository.class);
+        seed(context.getBean(JdbcTemplate.class));
+        context.getBean(ProductSearchIndex.class).rebuild();
+
+        request = new ProductSearchRequest();
+        request.setQuery("wireless ergonomic");
+        request.setSize(30);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<ProductDTO> indexedSearch() {
+        return productService.searchProducts(request);
+    }
+
+    @Benchmark
+    public Page<ProductSummaryDTO> indexedSearchSummary() {
+        return productService.searchProductSummaries(request);
+    }
+
+    @Benchmark
+    public Page<ProductSummaryDTO> likeScanSearch() {
+        return productRepository.findSummariesWithFilters("wireless", null, null, null, null, PageRequest.of(0, 30));
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        List<Object[]> rows = new ArrayList<>(datasetSize);
+        for (int i = 0; i < datasetSize; i++) {
+            String title = WORDS[i % WORDS.length] + " " + WORDS[(i / 7) % WORDS.length] + " " + i;
+            String description = "The " + WORDS[(i / 3) % WORDS.length] + " " + WORDS[(i / 11) % WORDS.length]
+                + " for everyday use, model " + i + ".";
+            rows.add(new Object[] { title, description, "category-" + (i % 25), "brand-" + (i % 40),
+                (i % 1000) + 0.99, (i % 50) / 10.0, i % 200 });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO products (title, description, category, brand, price, rating, stock) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+}
@@ -1,7 +1,11 @@
 package com.megamart.productserver.controller;
 
+import com.megamart.productserver.dto.CategoryFacetDTO;
+import com.megamart.productserver.dto.ProductCursorPage;
 import com.megamart.productserver.dto.ProductDTO;
 import com.megamart.productserver.dto.ProductSearchRequest;
+import com.megamart.productserver.dto.StockAdjustmentRequest;
+import com.megamart.productserver.dto.StockReservationRequest;
 import com.megamart.productserver.entity.Category;
 import com.megamart.productserver.service.ProductService;
 import lombok.RequiredArgsConstructor;
@@ -21,6 +25,10 @@ import java.util.Map;
 @CrossOrigin(origins = "http://localhost:4200")
 public class ProductController {
     
+    // Listing endpoints return full products by default; view=summary returns grid-card fields only
+    private static final String VIEW_FULL = "full";
+    private static final String VIEW_SUMMARY = "summary";
+    
     private final ProductService productService;
     
     public ProductController(ProductService productService) {
@@ -34,9 +42,23 @@ public class ProductController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "30") int size,
             @RequestParam(defaultValue = "id") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDirection,
+            @RequestParam(defaultValue = VIEW_FULL) String view) {
+        
+        Page<?> products = isSummaryView(view)
+            ? productService.getAllProductSummaries(page, size, sortBy, sortDirection)
+            : productService.getAllProducts(page, size, sortBy, sortDirection);
+        return createSuccessResponse(products, "Products retrieved successfully");
+    }
+    
+    @GetMapping("/products/scroll")
+    public ResponseEntity<Map<String, Object>> scrollProducts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "30") int size,
+            @RequestParam(defaultValue = "id") String sortBy,
             @RequestParam(defaultValue = "asc") String sortDirection) {
         
-        Page<ProductDTO> products = productService.getAllProducts(page, size, sortBy, sortDirection);
+        ProductCursorPage products = productService.scrollProducts(null, cursor, size, sortBy, sortDirection);
         return createSuccessResponse(products, "Products retrieved successfully");
     }
     
@@ -69,9 +91,24 @@ public class ProductController {
     public ResponseEntity<Map<String, Object>> getProductsByCategory(
             @PathVariable String category,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = VIEW_FULL) String view) {
+        
+        Page<?> products = isSummaryView(view)
+            ? productService.getProductSummariesByCategory(category, page, size)
+            : productService.getProductsByCategory(category, page, size);
+        return createSuccessResponse(products, "Products by category retrieved successfully");
+    }
+    
+    @GetMapping("/products/category/{category}/scroll")
+    public ResponseEntity<Map<String, Object>> scrollProductsByCategory(
+            @PathVariable String category,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDirection) {
         
-        Page<ProductDTO> products = productService.getProductsByCategory(category, page, size);
+        ProductCursorPage products = productService.scrollProducts(category, cursor, size, sortBy, sortDirection);
         return createSuccessResponse(products, "Products by category retrieved successfully");
     }
     
@@ -84,8 +121,9 @@ public class ProductController {
             @RequestParam(required = false) Double maxPrice,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(defaultValue = "id") String sortBy,
-            @RequestParam(defaultValue = "asc") String sortDirection) {
+            @RequestParam(defaultValue = "relevance") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDirection,
+            @RequestParam(defaultValue = VIEW_FULL) String view) {
         
         ProductSearchRequest request = new ProductSearchRequest();
         request.setQuery(keyword);
@@ -98,16 +136,21 @@ public class ProductController {
         request.setSortBy(sortBy);
         request.setSortDirection(sortDirection);
         
-        Page<ProductDTO> products = productService.searchProducts(request);
+        Page<?> products = isSummaryView(view)
+            ? productService.searchProductSummaries(request)
+            : productService.searchProducts(request);
         return createSuccessResponse(products, "Products search completed successfully");
     }
     
     @GetMapping("/products/in-stock")
     public ResponseEntity<Map<String, Object>> getProductsInStock(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = VIEW_FULL) String view) {
         
-        Page<ProductDTO> products = productService.getProductsInStock(page, size);
+        Page<?> products = isSummaryView(view)
+            ? productService.getProductSummariesInStock(page, size)
+            : productService.getProductsInStock(page, size);
         return createSuccessResponse(products, "In-stock products retrieved successfully");
     }
     
@@ -150,12 +193,15 @@ public class ProductController {
         return createSuccessResponse(brands, "Brands for category retrieved successfully");
     }
     
+    @GetMapping("/facets")
+    public ResponseEntity<Map<String, Object>> getFacets(@RequestParam(required = false) String category) {
+        List<CategoryFacetDTO> facets = productService.getFacets(category);
+        return createSuccessResponse(facets, "Facets retrieved successfully");
+    }
+    
     @PostMapping("/products/{id}/stock")
     @CrossOrigin(origins = "*")
     public ResponseEntity<Map<String, Object>> updateStock(@PathVariable Long id, @RequestBody Map<String, Integer> request) {
-        System.out.println("ProductController.updateStock called for product " + id);
-        System.out.println("Request body: " + request);
-        
         Integer stockChange = request.get("stockChange");
         if (stockChange == null) {
             return createErrorResponse("stockChange is required", HttpStatus.BAD_REQUEST);
@@ -165,6 +211,23 @@ public class ProductController {
         return createSuccessResponse(updatedProduct, "Stock updated successfully");
     }
     
+    @PostMapping("/products/stock/reservations")
+    public ResponseEntity<Map<String, Object>> reserveStock(@RequestBody StockReservationRequest request) {
+        List<StockReservationRequest.Item> reserved = productService.reserveStock(request.getItems());
+        return createSuccessResponse(reserved, "Stock reserved successfully");
+    }
+    
+    @PostMapping("/products/stock/adjustments")
+    public ResponseEntity<Map<String, Object>> applyStockAdjustments(@RequestBody StockAdjustmentRequest request) {
+        Map<String, String> outcomes = productService.applyStockAdjustments(request.getItems());
+        return createSuccessResponse(outcomes, "Stock adjustments processed");
+    }
+    
+    @GetMapping("/products/cache/stats")
+    public ResponseEntity<Map<String, Object>> getProductCacheStats() {
+        return createSuccessResponse(productService.getProductCacheStats(), "Product cache statistics retrieved successfully");
+    }
+    
     @GetMapping("/test")
     public ResponseEntity<String> test() {
         return ResponseEntity.ok("Product Service is running on port 9096");
@@ -172,6 +235,10 @@ public class ProductController {
     
     // HELPER METHODS
     
+    private boolean isSummaryView(String view) {
+        return VIEW_SUMMARY.equalsIgnoreCase(view);
+    }
+    
     private ResponseEntity<Map<String, Object>> createSuccessResponse(Object data, String message) {
         return createSuccessResponse(data, message, HttpStatus.OK);
     }
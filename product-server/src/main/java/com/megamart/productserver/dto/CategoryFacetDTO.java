@@ -0,0 +1,68 @@
+package com.megamart.productserver.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public class CategoryFacetDTO {
+    private String category;
+    private int count;
+    private List<BrandCount> brands;
+    private List<PriceBucket> priceBuckets;
+
+    public CategoryFacetDTO() {}
+
+    public CategoryFacetDTO(String category, int count, List<BrandCount> brands, List<PriceBucket> priceBuckets) {
+        this.category = category;
+        this.count = count;
+        this.brands = brands;
+        this.priceBuckets = priceBuckets;
+    }
+
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+    public int getCount() { return count; }
+    public void setCount(int count) { this.count = count; }
+    public List<BrandCount> getBrands() { return brands; }
+    public void setBrands(List<BrandCount> brands) { this.brands = brands; }
+    public List<PriceBucket> getPriceBuckets() { return priceBuckets; }
+    public void setPriceBuckets(List<PriceBucket> priceBuckets) { this.priceBuckets = priceBuckets; }
+
+    public static class BrandCount {
+        private String brand;
+        private int count;
+
+        public BrandCount() {}
+
+        public BrandCount(String brand, int count) {
+            this.brand = brand;
+            this.count = count;
+        }
+
+        public String getBrand() { return brand; }
+        public void setBrand(String brand) { this.brand = brand; }
+        public int getCount() { return count; }
+        public void setCount(int count) { this.count = count; }
+    }
+
+    public static class PriceBucket {
+        // min is inclusive and null for the first bucket; max is exclusive and null for the last
+        private BigDecimal min;
+        private BigDecimal max;
+        private int count;
+
+        public PriceBucket() {}
+
+        public PriceBucket(BigDecimal min, BigDecimal max, int count) {
+            this.min = min;
+            this.max = max;
+            this.count = count;
+        }
+
+        public BigDecimal getMin() { return min; }
+        public void setMin(BigDecimal min) { this.min = min; }
+        public BigDecimal getMax() { return max; }
+        public void setMax(BigDecimal max) { this.max = max; }
+        public int getCount() { return count; }
+        public void setCount(int count) { this.count = count; }
+    }
+}
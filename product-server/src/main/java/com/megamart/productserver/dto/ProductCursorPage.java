@@ -0,0 +1,32 @@
+package com.megamart.productserver.dto;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing. There is no total count; clients
+ * pass nextCursor back to fetch the following page until hasNext is false.
+ */
+public class ProductCursorPage {
+    private List<ProductDTO> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+
+    public ProductCursorPage() {}
+
+    public ProductCursorPage(List<ProductDTO> content, int size, boolean hasNext, String nextCursor) {
+        this.content = content;
+        this.size = size;
+        this.hasNext = hasNext;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<ProductDTO> getContent() { return content; }
+    public void setContent(List<ProductDTO> content) { this.content = content; }
+    public int getSize() { return size; }
+    public void setSize(int size) { this.size = size; }
+    public boolean isHasNext() { return hasNext; }
+    public void setHasNext(boolean hasNext) { this.hasNext = hasNext; }
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
@@ -8,7 +8,7 @@ public class ProductSearchRequest {
     private BigDecimal minPrice;
     private BigDecimal maxPrice;
     private String brand;
-    private String sortBy = "id";
+    private String sortBy = "relevance";
     private String sortDirection = "asc";
     private Integer page = 0;
     private Integer size = 20;
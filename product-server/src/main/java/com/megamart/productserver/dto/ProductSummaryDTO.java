@@ -0,0 +1,44 @@
+package com.megamart.productserver.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Grid-card view of a product, selected directly by JPQL constructor
+ * expressions so listing pages skip the description, tags, images and reviews.
+ */
+public class ProductSummaryDTO {
+    private Long id;
+    private String title;
+    private BigDecimal price;
+    private Double discountPercentage;
+    private Double rating;
+    private String thumbnail;
+    private Integer stock;
+
+    public ProductSummaryDTO() {}
+
+    public ProductSummaryDTO(Long id, String title, BigDecimal price, Double discountPercentage, Double rating, String thumbnail, Integer stock) {
+        this.id = id;
+        this.title = title;
+        this.price = price;
+        this.discountPercentage = discountPercentage;
+        this.rating = rating;
+        this.thumbnail = thumbnail;
+        this.stock = stock;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+    public BigDecimal getPrice() { return price; }
+    public void setPrice(BigDecimal price) { this.price = price; }
+    public Double getDiscountPercentage() { return discountPercentage; }
+    public void setDiscountPercentage(Double discountPercentage) { this.discountPercentage = discountPercentage; }
+    public Double getRating() { return rating; }
+    public void setRating(Double rating) { this.rating = rating; }
+    public String getThumbnail() { return thumbnail; }
+    public void setThumbnail(String thumbnail) { this.thumbnail = thumbnail; }
+    public Integer getStock() { return stock; }
+    public void setStock(Integer stock) { this.stock = stock; }
+}
@@ -0,0 +1,42 @@
+package com.megamart.productserver.dto;
+
+import java.util.List;
+
+public class StockAdjustmentRequest {
+    private List<Item> items;
+
+    public StockAdjustmentRequest() {}
+
+    public List<Item> getItems() { return items; }
+    public void setItems(List<Item> items) { this.items = items; }
+
+    public static class Item {
+        private String idempotencyKey;
+        private Long productId;
+        private Integer stockChange;
+        // Key of an earlier adjustment this one undoes; see ProductService.applyStockAdjustments
+        private String reverses;
+
+        public Item() {}
+
+        public Item(String idempotencyKey, Long productId, Integer stockChange) {
+            this.idempotencyKey = idempotencyKey;
+            this.productId = productId;
+            this.stockChange = stockChange;
+        }
+
+        public Item(String idempotencyKey, Long productId, Integer stockChange, String reverses) {
+            this(idempotencyKey, productId, stockChange);
+            this.reverses = reverses;
+        }
+
+        public String getIdempotencyKey() { return idempotencyKey; }
+        public void setIdempotencyKey(String idempotencyKey) { this.idempotencyKey = idempotencyKey; }
+        public Long getProductId() { return productId; }
+        public void setProductId(Long productId) { this.productId = productId; }
+        public Integer getStockChange() { return stockChange; }
+        public void setStockChange(Integer stockChange) { this.stockChange = stockChange; }
+        public String getReverses() { return reverses; }
+        public void setReverses(String reverses) { this.reverses = reverses; }
+    }
+}
@@ -9,7 +9,15 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+    // Back the whitelisted sort keys (ProductSortField) and the in-stock filter
+    @Index(name = "idx_products_category_price", columnList = "category, price"),
+    @Index(name = "idx_products_category_rating", columnList = "category, rating"),
+    @Index(name = "idx_products_brand_price", columnList = "brand, price"),
+    @Index(name = "idx_products_price", columnList = "price"),
+    @Index(name = "idx_products_rating", columnList = "rating"),
+    @Index(name = "idx_products_stock", columnList = "stock")
+})
 public class Product {
     
     @Id
@@ -0,0 +1,46 @@
+package com.megamart.productserver.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Record of a stock adjustment applied on behalf of another service, keyed by
+ * the caller's idempotency key so redelivered adjustments are applied once.
+ */
+@Entity
+@Table(name = "stock_adjustments")
+public class StockAdjustment {
+    
+    @Id
+    @Column(name = "idempotency_key", length = 128)
+    private String idempotencyKey;
+    
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+    
+    @Column(name = "stock_change", nullable = false)
+    private Integer stockChange;
+    
+    @CreationTimestamp
+    @Column(name = "applied_at")
+    private LocalDateTime appliedAt;
+
+    public StockAdjustment() {}
+
+    public StockAdjustment(String idempotencyKey, Long productId, Integer stockChange) {
+        this.idempotencyKey = idempotencyKey;
+        this.productId = productId;
+        this.stockChange = stockChange;
+    }
+
+    public String getIdempotencyKey() { return idempotencyKey; }
+    public void setIdempotencyKey(String idempotencyKey) { this.idempotencyKey = idempotencyKey; }
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+    public Integer getStockChange() { return stockChange; }
+    public void setStockChange(Integer stockChange) { this.stockChange = stockChange; }
+    public LocalDateTime getAppliedAt() { return appliedAt; }
+    public void setAppliedAt(LocalDateTime appliedAt) { this.appliedAt = appliedAt; }
+}
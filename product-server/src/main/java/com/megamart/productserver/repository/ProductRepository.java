@@ -1,22 +1,53 @@
 package com.megamart.productserver.repository;
 
+import com.megamart.productserver.dto.ProductSummaryDTO;
 import com.megamart.productserver.entity.Product;
+import com.megamart.productserver.entity.ProductReview;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
     
+    String SUMMARY_SELECT = "SELECT new com.megamart.productserver.dto.ProductSummaryDTO(" +
+        "p.id, p.title, p.price, p.discountPercentage, p.rating, p.thumbnail, p.stock) FROM Product p";
+    
+    // Listing queries fetch the inverse one-to-one metadata in the same select; Hibernate
+    // would otherwise load it eagerly with one extra statement per product
+    @Override
+    @EntityGraph(attributePaths = "metadata")
+    Page<Product> findAll(Pageable pageable);
+    
+    @Override
+    @EntityGraph(attributePaths = "metadata")
+    List<Product> findAllById(Iterable<Long> ids);
+    
     // Find by category
+    @EntityGraph(attributePaths = "metadata")
     Page<Product> findByCategory(String category, Pageable pageable);
     
+    // Keyset (seek) scrolling for catalog browsing; no count query is issued
+    @EntityGraph(attributePaths = "metadata")
+    Window<Product> findBy(ScrollPosition position, Sort sort, Limit limit);
+    
+    @EntityGraph(attributePaths = "metadata")
+    Window<Product> findByCategory(String category, ScrollPosition position, Sort sort, Limit limit);
+    
     // Find by brand
     Page<Product> findByBrand(String brand, Pageable pageable);
     
@@ -31,9 +62,11 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     Page<Product> findByAvailabilityStatus(String status, Pageable pageable);
     
     // Find products with stock greater than 0
+    @EntityGraph(attributePaths = "metadata")
     Page<Product> findByStockGreaterThan(Integer stock, Pageable pageable);
     
     // Complex search query
+    @EntityGraph(attributePaths = "metadata")
     @Query("SELECT p FROM Product p WHERE " +
            "(:query IS NULL OR p.title LIKE %:query% OR p.description LIKE %:query%) AND " +
            "(:category IS NULL OR p.category = :category) AND " +
@@ -49,6 +82,42 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
         Pageable pageable
     );
     
+    // Summary projections for the listing endpoints (view=summary)
+    @Query(value = SUMMARY_SELECT, countQuery = "SELECT COUNT(p) FROM Product p")
+    Page<ProductSummaryDTO> findAllSummaries(Pageable pageable);
+    
+    @Query(value = SUMMARY_SELECT + " WHERE p.category = :category",
+           countQuery = "SELECT COUNT(p) FROM Product p WHERE p.category = :category")
+    Page<ProductSummaryDTO> findSummariesByCategory(@Param("category") String category, Pageable pageable);
+    
+    @Query(value = SUMMARY_SELECT + " WHERE p.stock > :stock",
+           countQuery = "SELECT COUNT(p) FROM Product p WHERE p.stock > :stock")
+    Page<ProductSummaryDTO> findSummariesByStockGreaterThan(@Param("stock") Integer stock, Pageable pageable);
+    
+    @Query(SUMMARY_SELECT + " WHERE p.id IN :ids")
+    List<ProductSummaryDTO> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Query(value = SUMMARY_SELECT + " WHERE " +
+           "(:query IS NULL OR p.title LIKE %:query% OR p.description LIKE %:query%) AND " +
+           "(:category IS NULL OR p.category = :category) AND " +
+           "(:brand IS NULL OR p.brand = :brand) AND " +
+           "(:minPrice IS NULL OR p.price >= :minPrice) AND " +
+           "(:maxPrice IS NULL OR p.price <= :maxPrice)",
+           countQuery = "SELECT COUNT(p) FROM Product p WHERE " +
+           "(:query IS NULL OR p.title LIKE %:query% OR p.description LIKE %:query%) AND " +
+           "(:category IS NULL OR p.category = :category) AND " +
+           "(:brand IS NULL OR p.brand = :brand) AND " +
+           "(:minPrice IS NULL OR p.price >= :minPrice) AND " +
+           "(:maxPrice IS NULL OR p.price <= :maxPrice)")
+    Page<ProductSummaryDTO> findSummariesWithFilters(
+        @Param("query") String query,
+        @Param("category") String category,
+        @Param("brand") String brand,
+        @Param("minPrice") BigDecimal minPrice,
+        @Param("maxPrice") BigDecimal maxPrice,
+        Pageable pageable
+    );
+    
     // Get all categories
     @Query("SELECT DISTINCT p.category FROM Product p")
     List<String> findAllCategories();
@@ -59,4 +128,32 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     
     @Query("SELECT DISTINCT p.brand FROM Product p WHERE p.category = :category AND p.brand IS NOT NULL")
     List<String> findBrandsByCategory(@Param("category") String category);
+    
+    // Atomic conditional stock change; returns 0 when the product is missing or the change would go negative
+    @Modifying
+    @Query("UPDATE Product p SET p.stock = p.stock + :delta, p.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE p.id = :id AND p.stock + :delta >= 0")
+    int adjustStock(@Param("id") Long id, @Param("delta") int delta);
+    
+    @Query("SELECT p.stock FROM Product p WHERE p.id = :id")
+    Optional<Integer> findStockById(@Param("id") Long id);
+    
+    // Products in id order after afterId, used to build the search index in batches without OFFSET or COUNT
+    @EntityGraph(attributePaths = "metadata")
+    @Query("SELECT p FROM Product p WHERE p.id > :afterId ORDER BY p.id")
+    List<Product> findBatchAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
+    // (id, category, brand, price) rows in id order, used to build the facet counts in batches
+    @Query("SELECT p.id, p.category, p.brand, p.price FROM Product p WHERE p.id > :afterId ORDER BY p.id")
+    List<Object[]> findFacetRowsAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
+    // Batch loaders for the collections of a page of products: (productId, value) pairs
+    @Query("SELECT t.product.id, t.tag FROM ProductTag t WHERE t.product.id IN :ids ORDER BY t.id")
+    List<Object[]> findTagsByProductIds(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT i.product.id, i.imageUrl FROM ProductImage i WHERE i.product.id IN :ids ORDER BY i.id")
+    List<Object[]> findImageUrlsByProductIds(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT r FROM ProductReview r WHERE r.product.id IN :ids ORDER BY r.id")
+    List<ProductReview> findReviewsByProductIds(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,9 @@
+package com.megamart.productserver.repository;
+
+import com.megamart.productserver.entity.StockAdjustment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface StockAdjustmentRepository extends JpaRepository<StockAdjustment, String> {
+}
@@ -0,0 +1,72 @@
+package com.megamart.productserver.service;
+
+import com.megamart.productserver.entity.Product;
+import com.megamart.productserver.exception.ProductValidationException;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Opaque keyset cursor for catalog scrolling. It encodes the sort field and
+ * direction plus the last row's sort key and id, so the next page is a seek
+ * on (sortKey, id) rather than an OFFSET.
+ */
+final class ProductCursor {
+
+    private final ProductSortField field;
+    private final Sort.Direction direction;
+
+    private ProductCursor(ProductSortField field, Sort.Direction direction) {
+        this.field = field;
+        this.direction = direction;
+    }
+
+    static ProductCursor of(String sortBy, String sortDirection) {
+        // Normalised once here, so "Price" and "price" get the same sort and the same cursors
+        ProductSortField field = ProductSortField.fromKey(sortBy);
+        if (field != ProductSortField.ID && field != ProductSortField.PRICE) {
+            throw new ProductValidationException("Cursor pagination supports sortBy=id or sortBy=price, got: " + sortBy);
+        }
+        return new ProductCursor(field, "desc".equalsIgnoreCase(sortDirection) ? Sort.Direction.DESC : Sort.Direction.ASC);
+    }
+
+    Sort sort() {
+        return ProductSortField.resolve(field.getKey(), direction.name());
+    }
+
+    ScrollPosition position(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":", -1);
+        } catch (IllegalArgumentException e) {
+            throw new ProductValidationException("cursor", cursor);
+        }
+        if (parts.length != 4 || !parts[0].equalsIgnoreCase(field.getKey()) || !parts[1].equalsIgnoreCase(direction.name())) {
+            throw new ProductValidationException("Cursor does not match the requested sort: " + field.getKey() + " " + direction);
+        }
+        try {
+            Map<String, Object> keys = new LinkedHashMap<>();
+            if (field == ProductSortField.PRICE) {
+                keys.put(ProductSortField.PRICE.getKey(), new BigDecimal(parts[2]));
+            }
+            keys.put(ProductSortField.ID.getKey(), Long.valueOf(parts[3]));
+            return ScrollPosition.forward(keys);
+        } catch (NumberFormatException e) {
+            throw new ProductValidationException("cursor", cursor);
+        }
+    }
+
+    String encode(Product last) {
+        String sortValue = field == ProductSortField.PRICE ? last.getPrice().toPlainString() : "";
+        String raw = field.getKey() + ":" + direction.name() + ":" + sortValue + ":" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
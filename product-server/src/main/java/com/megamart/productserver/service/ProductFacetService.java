@@ -0,0 +1,257 @@
+package com.megamart.productserver.service;
+
+import com.megamart.productserver.dto.CategoryFacetDTO;
+import com.megamart.productserver.entity.Product;
+import com.megamart.productserver.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Precomputed category, brand and price-range counts for the storefront filter
+ * sidebar. Built once on startup and kept current from product create, update
+ * and delete, so facet reads never scan the products table.
+ */
+@Service
+@Slf4j
+public class ProductFacetService {
+
+    private static final int REBUILD_BATCH_SIZE = 5000;
+
+    private final ProductRepository productRepository;
+    private final BigDecimal[] bucketBounds;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Facets current;
+    // Changes made while a rebuild scans the table, replayed onto the new counts before the swap
+    private List<Consumer<Facets>> changedDuringRebuild;
+    private volatile boolean ready = false;
+
+    public ProductFacetService(ProductRepository productRepository,
+                               @Value("${product.facets.price-buckets:0,10,25,50,100,250,500,1000}") BigDecimal[] bucketBounds) {
+        this.productRepository = productRepository;
+        this.bucketBounds = bucketBounds.clone();
+        Arrays.sort(this.bucketBounds);
+        this.current = new Facets(this.bucketBounds.length + 1);
+    }
+
+    /**
+     * Counts the products table into fresh maps without holding the lock, so
+     * facet reads keep being served from the old counts during the scan, then
+     * swaps them in.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Facets rebuilt = new Facets(bucketBounds.length + 1);
+        try {
+            long afterId = 0L;
+            List<Object[]> rows;
+            do {
+                rows = productRepository.findFacetRowsAfter(afterId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+                for (Object[] row : rows) {
+                    Long id = (Long) row[0];
+                    rebuilt.add(id, new FacetEntry((String) row[1], (String) row[2], bucketOf((BigDecimal) row[3])));
+                    afterId = id;
+                }
+            } while (rows.size() == REBUILD_BATCH_SIZE);
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                changedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild.forEach(change -> change.accept(rebuilt));
+            changedDuringRebuild = null;
+            current = rebuilt;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Product facets built: {} products in {} categories in {} ms",
+            rebuilt.entries.size(), rebuilt.categories.size(), System.currentTimeMillis() - start);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void index(Product product) {
+        Long productId = product.getId();
+        FacetEntry entry = new FacetEntry(product.getCategory(), product.getBrand(), bucketOf(product.getPrice()));
+        apply(facets -> {
+            facets.remove(productId);
+            facets.add(productId, entry);
+        });
+    }
+
+    public void remove(Long productId) {
+        apply(facets -> facets.remove(productId));
+    }
+
+    private void apply(Consumer<Facets> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(current);
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<String> getCategories() {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(current.categories.keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<String> getBrands() {
+        lock.readLock().lock();
+        try {
+            TreeSet<String> brands = new TreeSet<>();
+            for (CategoryCounts counts : current.categories.values()) {
+                brands.addAll(counts.brands.keySet());
+            }
+            return new ArrayList<>(brands);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<String> getBrands(String category) {
+        lock.readLock().lock();
+        try {
+            CategoryCounts counts = current.categories.get(category);
+            return counts == null ? new ArrayList<>() : new ArrayList<>(counts.brands.keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<CategoryFacetDTO> getFacets(String category) {
+        lock.readLock().lock();
+        try {
+            List<CategoryFacetDTO> facets = new ArrayList<>();
+            for (Map.Entry<String, CategoryCounts> entry : current.categories.entrySet()) {
+                if (category == null || category.equals(entry.getKey())) {
+                    facets.add(toDTO(entry.getKey(), entry.getValue()));
+                }
+            }
+            return facets;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Bucket 0 holds prices below the first bound; bucket i holds [bounds[i-1], bounds[i])
+    private int bucketOf(BigDecimal price) {
+        if (price == null) {
+            return 0;
+        }
+        int bucket = 0;
+        while (bucket < bucketBounds.length && price.compareTo(bucketBounds[bucket]) >= 0) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    private CategoryFacetDTO toDTO(String category, CategoryCounts counts) {
+        List<CategoryFacetDTO.BrandCount> brands = new ArrayList<>();
+        counts.brands.forEach((brand, count) -> brands.add(new CategoryFacetDTO.BrandCount(brand, count)));
+
+        List<CategoryFacetDTO.PriceBucket> buckets = new ArrayList<>();
+        for (int i = 0; i < counts.buckets.length; i++) {
+            if (counts.buckets[i] == 0) {
+                continue;
+            }
+            BigDecimal min = i == 0 ? null : bucketBounds[i - 1];
+            BigDecimal max = i < bucketBounds.length ? bucketBounds[i] : null;
+            buckets.add(new CategoryFacetDTO.PriceBucket(min, max, counts.buckets[i]));
+        }
+        return new CategoryFacetDTO(category, counts.total, brands, buckets);
+    }
+
+    private static final class Facets {
+        private final Map<String, CategoryCounts> categories = new TreeMap<>();
+        private final Map<Long, FacetEntry> entries = new HashMap<>();
+        private final int bucketCount;
+
+        private Facets(int bucketCount) {
+            this.bucketCount = bucketCount;
+        }
+
+        private void add(Long productId, FacetEntry entry) {
+            entries.put(productId, entry);
+            CategoryCounts counts = categories.computeIfAbsent(entry.category, c -> new CategoryCounts(bucketCount));
+            counts.total++;
+            if (entry.brand != null) {
+                counts.brands.merge(entry.brand, 1, Integer::sum);
+            }
+            counts.buckets[entry.bucket]++;
+        }
+
+        private void remove(Long productId) {
+            FacetEntry entry = entries.remove(productId);
+            if (entry == null) {
+                return;
+            }
+            CategoryCounts counts = categories.get(entry.category);
+            if (counts == null) {
+                return;
+            }
+            counts.total--;
+            if (entry.brand != null) {
+                counts.brands.computeIfPresent(entry.brand, (brand, count) -> count > 1 ? count - 1 : null);
+            }
+            counts.buckets[entry.bucket]--;
+            if (counts.total == 0) {
+                categories.remove(entry.category);
+            }
+        }
+    }
+
+    private record FacetEntry(String category, String brand, int bucket) {
+    }
+
+    private static final class CategoryCounts {
+        private int total;
+        private final Map<String, Integer> brands = new TreeMap<>();
+        private final int[] buckets;
+
+        private CategoryCounts(int bucketCount) {
+            this.buckets = new int[bucketCount];
+        }
+    }
+}
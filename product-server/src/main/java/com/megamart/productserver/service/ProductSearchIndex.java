@@ -0,0 +1,326 @@
+package com.megamart.productserver.service;
+
+import com.megamart.productserver.entity.Product;
+import com.megamart.productserver.entity.ProductTag;
+import com.megamart.productserver.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory inverted index over product title, description, tags and brand.
+ * Keyword searches are answered from here instead of a LIKE scan; the service
+ * only goes to the database to hydrate the ids of the requested page.
+ */
+@Component
+@Slf4j
+public class ProductSearchIndex {
+
+    public static final String RELEVANCE = "relevance";
+
+    private static final int TITLE_WEIGHT = 4;
+    private static final int BRAND_WEIGHT = 3;
+    private static final int TAG_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private final ProductRepository productRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Postings current = new Postings();
+    // Changes made while a rebuild scans the table, replayed onto the new postings before the swap
+    private List<Consumer<Postings>> changedDuringRebuild;
+    private volatile boolean ready = false;
+
+    public ProductSearchIndex(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    /**
+     * Builds fresh postings from the products table without holding the lock,
+     * so searches keep being served from the old postings during the scan,
+     * then swaps them in.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Postings rebuilt = new Postings();
+        try {
+            long afterId = 0L;
+            List<Product> batch;
+            do {
+                batch = productRepository.findBatchAfter(afterId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+                Map<Long, List<String>> tags = loadTags(batch);
+                for (Product product : batch) {
+                    rebuilt.add(new IndexedProduct(product, tags.getOrDefault(product.getId(), Collections.emptyList())));
+                    afterId = product.getId();
+                }
+            } while (batch.size() == REBUILD_BATCH_SIZE);
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                changedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild.forEach(change -> change.accept(rebuilt));
+            changedDuringRebuild = null;
+            current = rebuilt;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Product search index built: {} products, {} terms in {} ms",
+            rebuilt.documents.size(), rebuilt.postings.size(), System.currentTimeMillis() - start);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void index(Product product) {
+        List<String> tags = new ArrayList<>();
+        if (product.getTags() != null) {
+            for (ProductTag tag : product.getTags()) {
+                tags.add(tag.getTag());
+            }
+        }
+        IndexedProduct document = new IndexedProduct(product, tags);
+        apply(postings -> {
+            postings.remove(document.id);
+            postings.add(document);
+        });
+    }
+
+    public void remove(Long productId) {
+        apply(postings -> postings.remove(productId));
+    }
+
+    private void apply(Consumer<Postings> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(current);
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the page of matching product ids. Every query token must match
+     * (as a prefix of an indexed term); results are ranked by weighted term
+     * frequency unless sorted on price or rating.
+     */
+    public Page<Long> search(String query, String category, String brand,
+                             BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable) {
+        Set<String> queryTokens = new LinkedHashSet<>(tokenize(query));
+        if (queryTokens.isEmpty()) {
+            return new PageImpl<>(Collections.emptyList(), pageable, 0);
+        }
+
+        List<Hit> hits = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Map<Long, Integer> scores = null;
+            for (String token : queryTokens) {
+                Map<Long, Integer> tokenScores = current.matchPrefix(token);
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    scores.keySet().retainAll(tokenScores.keySet());
+                    scores.replaceAll((id, score) -> score + tokenScores.get(id));
+                }
+                if (scores.isEmpty()) {
+                    break;
+                }
+            }
+            for (Map.Entry<Long, Integer> entry : scores.entrySet()) {
+                IndexedProduct doc = current.documents.get(entry.getKey());
+                if (doc != null && doc.matches(category, brand, minPrice, maxPrice)) {
+                    hits.add(new Hit(doc, entry.getValue()));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        hits.sort(comparatorFor(pageable.getSort()));
+        int from = (int) Math.min(pageable.getOffset(), hits.size());
+        int to = Math.min(from + pageable.getPageSize(), hits.size());
+        List<Long> ids = new ArrayList<>(to - from);
+        for (Hit hit : hits.subList(from, to)) {
+            ids.add(hit.doc.id);
+        }
+        return new PageImpl<>(ids, pageable, hits.size());
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return current.documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Collections.emptyList();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private Map<Long, List<String>> loadTags(List<Product> products) {
+        Map<Long, List<String>> tags = new HashMap<>();
+        if (products.isEmpty()) {
+            return tags;
+        }
+        List<Long> ids = products.stream().map(Product::getId).toList();
+        for (Object[] row : productRepository.findTagsByProductIds(ids)) {
+            tags.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((String) row[1]);
+        }
+        return tags;
+    }
+
+    private static final class Postings {
+        // term -> (product id -> weighted term frequency)
+        private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+        private final Map<Long, IndexedProduct> documents = new HashMap<>();
+
+        private Map<Long, Integer> matchPrefix(String prefix) {
+            Map<Long, Integer> matches = new HashMap<>();
+            for (Map<Long, Integer> posting : postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+                posting.forEach((id, weight) -> matches.merge(id, weight, Integer::sum));
+            }
+            return matches;
+        }
+
+        private void add(IndexedProduct document) {
+            document.termWeights.forEach((term, weight) ->
+                postings.computeIfAbsent(term, t -> new HashMap<>()).put(document.id, weight));
+            documents.put(document.id, document);
+        }
+
+        private void remove(Long productId) {
+            IndexedProduct existing = documents.remove(productId);
+            if (existing == null) {
+                return;
+            }
+            for (String term : existing.termWeights.keySet()) {
+                Map<Long, Integer> posting = postings.get(term);
+                if (posting != null) {
+                    posting.remove(productId);
+                    if (posting.isEmpty()) {
+                        postings.remove(term);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void addTerms(Map<String, Integer> termWeights, String text, int weight) {
+        for (String token : tokenize(text)) {
+            termWeights.merge(token, weight, Integer::sum);
+        }
+    }
+
+    private static Comparator<Hit> comparatorFor(Sort sort) {
+        Comparator<Hit> byRelevance = Comparator.comparingInt((Hit hit) -> hit.score).reversed();
+        Comparator<Hit> comparator = null;
+        for (Sort.Order order : sort) {
+            Comparator<Hit> field = switch (order.getProperty()) {
+                case "price" -> Comparator.comparing((Hit hit) -> hit.doc.price,
+                    Comparator.nullsLast(Comparator.naturalOrder()));
+                case "rating" -> Comparator.comparing((Hit hit) -> hit.doc.rating,
+                    Comparator.nullsLast(Comparator.naturalOrder()));
+                default -> null;
+            };
+            if (field == null) {
+                continue;
+            }
+            if (order.isDescending()) {
+                field = field.reversed();
+            }
+            comparator = comparator == null ? field : comparator.thenComparing(field);
+        }
+        comparator = comparator == null ? byRelevance : comparator.thenComparing(byRelevance);
+        return comparator.thenComparingLong(hit -> hit.doc.id);
+    }
+
+    private record Hit(IndexedProduct doc, int score) {
+    }
+
+    private static final class IndexedProduct {
+        private final Long id;
+        private final String category;
+        private final String brand;
+        private final BigDecimal price;
+        private final Double rating;
+        private final Map<String, Integer> termWeights = new HashMap<>();
+
+        // Copies what it needs, so the product entity can change or be detached afterwards
+        private IndexedProduct(Product product, Collection<String> tags) {
+            this.id = product.getId();
+            this.category = product.getCategory();
+            this.brand = product.getBrand();
+            this.price = product.getPrice();
+            this.rating = product.getRating();
+            addTerms(termWeights, product.getTitle(), TITLE_WEIGHT);
+            addTerms(termWeights, product.getBrand(), BRAND_WEIGHT);
+            for (String tag : tags) {
+                addTerms(termWeights, tag, TAG_WEIGHT);
+            }
+            addTerms(termWeights, product.getDescription(), DESCRIPTION_WEIGHT);
+        }
+
+        private boolean matches(String category, String brand, BigDecimal minPrice, BigDecimal maxPrice) {
+            if (category != null && !category.equals(this.category)) return false;
+            if (brand != null && !brand.equals(this.brand)) return false;
+            if (minPrice != null && (price == null || price.compareTo(minPrice) < 0)) return false;
+            if (maxPrice != null && (price == null || price.compareTo(maxPrice) > 0)) return false;
+            return true;
+        }
+    }
+}
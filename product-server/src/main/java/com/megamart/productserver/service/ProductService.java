@@ -1,59 +1,102 @@
 package com.megamart.productserver.service;
 
+import com.megamart.productserver.dto.CategoryFacetDTO;
+import com.megamart.productserver.dto.ProductCursorPage;
 import com.megamart.productserver.dto.ProductDTO;
 import com.megamart.productserver.dto.ProductReviewDTO;
 import com.megamart.productserver.dto.ProductSearchRequest;
+import com.megamart.productserver.dto.ProductSummaryDTO;
+import com.megamart.productserver.dto.StockAdjustmentRequest;
+import com.megamart.productserver.dto.StockReservationRequest;
 import com.megamart.productserver.entity.Product;
 import com.megamart.productserver.entity.ProductImage;
 import com.megamart.productserver.entity.ProductReview;
 import com.megamart.productserver.entity.ProductTag;
 import com.megamart.productserver.entity.Category;
+import com.megamart.productserver.entity.StockAdjustment;
 import com.megamart.productserver.exception.CategoryNotFoundException;
+import com.megamart.productserver.exception.InsufficientStockException;
 import com.megamart.productserver.exception.ProductNotFoundException;
+import com.megamart.productserver.exception.ProductValidationException;
 import com.megamart.productserver.repository.CategoryRepository;
 import com.megamart.productserver.repository.ProductRepository;
+import com.megamart.productserver.repository.StockAdjustmentRepository;
 import com.megamart.productserver.service.interfaces.ProductServiceInterface;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class ProductService implements ProductServiceInterface {
     
+    public static final String STOCK_ADJUSTMENT_APPLIED = "APPLIED";
+    public static final String STOCK_ADJUSTMENT_DUPLICATE = "DUPLICATE";
+    public static final String STOCK_ADJUSTMENT_REJECTED = "REJECTED";
+    
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
+    private final ProductSearchIndex searchIndex;
+    private final ProductCache productCache;
+    private final ProductFacetService facetService;
+    private final StockAdjustmentRepository stockAdjustmentRepository;
     
-    public ProductService(ProductRepository productRepository, CategoryRepository categoryRepository) {
+    public ProductService(ProductRepository productRepository, CategoryRepository categoryRepository,
+                          ProductSearchIndex searchIndex, ProductCache productCache,
+                          ProductFacetService facetService, StockAdjustmentRepository stockAdjustmentRepository) {
         this.productRepository = productRepository;
         this.categoryRepository = categoryRepository;
+        this.searchIndex = searchIndex;
+        this.productCache = productCache;
+        this.facetService = facetService;
+        this.stockAdjustmentRepository = stockAdjustmentRepository;
     }
     
     public Page<ProductDTO> getAllProducts(int page, int size, String sortBy, String sortDirection) {
-        Sort sort = sortDirection.equalsIgnoreCase("desc") ? 
-            Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
-        Pageable pageable = PageRequest.of(page, size, sort);
-        
-        return productRepository.findAll(pageable).map(this::convertToDTO);
+        return convertPage(productRepository.findAll(pageRequest(page, size, sortBy, sortDirection)));
+    }
+    
+    public Page<ProductSummaryDTO> getAllProductSummaries(int page, int size, String sortBy, String sortDirection) {
+        return productRepository.findAllSummaries(pageRequest(page, size, sortBy, sortDirection));
     }
     
+    @Transactional(readOnly = true)
     public Optional<ProductDTO> getProductById(Long id) {
-        return productRepository.findById(id).map(this::convertToDTO);
+        return productCache.get(id, key -> productRepository.findById(key).map(this::convertToDTO));
+    }
+    
+    public Map<String, Object> getProductCacheStats() {
+        return productCache.getStats();
     }
     
     @Transactional
     public ProductDTO createProduct(ProductDTO productDTO) {
         Product product = convertToEntity(productDTO);
         Product savedProduct = productRepository.save(product);
+        afterCommit(() -> {
+            searchIndex.index(savedProduct);
+            facetService.index(savedProduct);
+        });
         return convertToDTO(savedProduct);
     }
     
@@ -64,6 +107,11 @@ public class ProductService implements ProductServiceInterface {
         
         updateProductFields(existingProduct, productDTO);
         Product updatedProduct = productRepository.save(existingProduct);
+        afterCommit(() -> {
+            searchIndex.index(updatedProduct);
+            facetService.index(updatedProduct);
+        });
+        productCache.invalidate(id);
         return convertToDTO(updatedProduct);
     }
     
@@ -73,77 +121,265 @@ public class ProductService implements ProductServiceInterface {
             throw new ProductNotFoundException("Product not found with id: " + id);
         }
         productRepository.deleteById(id);
+        afterCommit(() -> {
+            searchIndex.remove(id);
+            facetService.remove(id);
+        });
+        productCache.invalidate(id);
+    }
+    
+    /**
+     * The search index and facets only ever see committed products; a rolled
+     * back write leaves them untouched.
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
     
     public Page<ProductDTO> getProductsByCategory(String category, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
-        return productRepository.findByCategory(category, pageable).map(this::convertToDTO);
+        return convertPage(productRepository.findByCategory(category, pageable));
+    }
+    
+    public Page<ProductSummaryDTO> getProductSummariesByCategory(String category, int page, int size) {
+        Pageable pageable = PageRequest.of(page, size);
+        return productRepository.findSummariesByCategory(category, pageable);
+    }
+    
+    /**
+     * Keyset-paginated catalog listing, optionally restricted to a category.
+     * Each page seeks past the cursor's (sortKey, id) instead of skipping rows.
+     */
+    public ProductCursorPage scrollProducts(String category, String cursor, int size, String sortBy, String sortDirection) {
+        ProductCursor productCursor = ProductCursor.of(sortBy, sortDirection);
+        ScrollPosition position = productCursor.position(cursor);
+        Window<Product> window = category == null
+            ? productRepository.findBy(position, productCursor.sort(), Limit.of(size))
+            : productRepository.findByCategory(category, position, productCursor.sort(), Limit.of(size));
+        
+        List<Product> products = window.getContent();
+        String nextCursor = window.hasNext() && !products.isEmpty()
+            ? productCursor.encode(products.get(products.size() - 1))
+            : null;
+        return new ProductCursorPage(convertToDTOs(products), products.size(), window.hasNext(), nextCursor);
     }
     
     public Page<ProductDTO> searchProducts(ProductSearchRequest request) {
-        Sort sort = request.getSortDirection().equalsIgnoreCase("desc") ? 
-            Sort.by(request.getSortBy()).descending() : Sort.by(request.getSortBy()).ascending();
-        Pageable pageable = PageRequest.of(request.getPage(), request.getSize(), sort);
+        Pageable pageable = searchPageRequest(request);
+        
+        // Keyword searches are served by the inverted index; only the page of ids is loaded from the database
+        if (usesSearchIndex(request)) {
+            Page<Long> ids = searchIndex(request, pageable);
+            List<Product> products = orderByIds(ids.getContent(), productRepository.findAllById(ids.getContent()), Product::getId);
+            return convertPage(new PageImpl<>(products, pageable, ids.getTotalElements()));
+        }
+        
+        return convertPage(productRepository.findProductsWithFilters(
+            request.getQuery(),
+            request.getCategory(),
+            request.getBrand(),
+            request.getMinPrice(),
+            request.getMaxPrice(),
+            pageable
+        ));
+    }
+    
+    public Page<ProductSummaryDTO> searchProductSummaries(ProductSearchRequest request) {
+        Pageable pageable = searchPageRequest(request);
+        
+        if (usesSearchIndex(request)) {
+            Page<Long> ids = searchIndex(request, pageable);
+            List<ProductSummaryDTO> summaries = orderByIds(ids.getContent(),
+                productRepository.findSummariesByIdIn(ids.getContent()), ProductSummaryDTO::getId);
+            return new PageImpl<>(summaries, pageable, ids.getTotalElements());
+        }
         
-        return productRepository.findProductsWithFilters(
+        return productRepository.findSummariesWithFilters(
             request.getQuery(),
             request.getCategory(),
             request.getBrand(),
             request.getMinPrice(),
             request.getMaxPrice(),
             pageable
-        ).map(this::convertToDTO);
+        );
+    }
+    
+    private Pageable pageRequest(int page, int size, String sortBy, String sortDirection) {
+        return PageRequest.of(page, size, ProductSortField.resolve(sortBy, sortDirection));
+    }
+    
+    private Pageable searchPageRequest(ProductSearchRequest request) {
+        String sortBy = ProductSearchIndex.RELEVANCE.equalsIgnoreCase(request.getSortBy()) ? "id" : request.getSortBy();
+        return pageRequest(request.getPage(), request.getSize(), sortBy, request.getSortDirection());
+    }
+    
+    private boolean usesSearchIndex(ProductSearchRequest request) {
+        return request.getQuery() != null && !request.getQuery().isBlank() && searchIndex.isReady();
+    }
+    
+    private Page<Long> searchIndex(ProductSearchRequest request, Pageable pageable) {
+        return searchIndex.search(
+            request.getQuery(),
+            request.getCategory(),
+            request.getBrand(),
+            request.getMinPrice(),
+            request.getMaxPrice(),
+            pageable
+        );
+    }
+    
+    private <T> List<T> orderByIds(List<Long> ids, List<T> items, Function<T, Long> idOf) {
+        Map<Long, T> byId = new HashMap<>();
+        for (T item : items) {
+            byId.put(idOf.apply(item), item);
+        }
+        List<T> ordered = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            T item = byId.get(id);
+            if (item != null) {
+                ordered.add(item);
+            }
+        }
+        return ordered;
     }
     
     public List<String> getAllCategories() {
-        return productRepository.findAllCategories();
+        return facetService.isReady() ? facetService.getCategories() : productRepository.findAllCategories();
     }
     
     public List<String> getAllBrands() {
-        return productRepository.findAllBrands();
+        return facetService.isReady() ? facetService.getBrands() : productRepository.findAllBrands();
     }
     
     public List<String> getBrandsByCategory(String category) {
-        return productRepository.findBrandsByCategory(category);
+        return facetService.isReady() ? facetService.getBrands(category) : productRepository.findBrandsByCategory(category);
+    }
+    
+    public List<CategoryFacetDTO> getFacets(String category) {
+        return facetService.getFacets(category);
     }
     
     public Page<ProductDTO> getProductsInStock(int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
-        return productRepository.findByStockGreaterThan(0, pageable).map(this::convertToDTO);
+        return convertPage(productRepository.findByStockGreaterThan(0, pageable));
     }
     
+    public Page<ProductSummaryDTO> getProductSummariesInStock(int page, int size) {
+        Pageable pageable = PageRequest.of(page, size);
+        return productRepository.findSummariesByStockGreaterThan(0, pageable);
+    }
+    
+    /**
+     * Applies a stock change with a single conditional UPDATE, so concurrent
+     * checkouts can neither oversell nor lose each other's writes.
+     *
+     * @throws InsufficientStockException if the change would make stock negative
+     */
     @Transactional
     public ProductDTO updateStock(Long id, Integer stockChange) {
-        Product product = productRepository.findById(id)
-            .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + id));
-        
-        int oldStock = product.getStock();
-        int newStock = oldStock + stockChange;
+        productCache.invalidate(id);
+        if (productRepository.adjustStock(id, stockChange) != 1) {
+            int available = productRepository.findStockById(id)
+                .orElseThrow(() -> new ProductNotFoundException(id));
+            throw new InsufficientStockException(id, -stockChange, available);
+        }
+        return productRepository.findById(id)
+            .map(this::convertToDTO)
+            .orElseThrow(() -> new ProductNotFoundException(id));
+    }
+    
+    /**
+     * Decrements stock for every item of a checkout in one transaction. If any
+     * product is missing or short, the whole reservation is rolled back.
+     * Products are updated in id order so concurrent reservations lock rows
+     * in the same sequence.
+     */
+    @Transactional
+    public List<StockReservationRequest.Item> reserveStock(List<StockReservationRequest.Item> items) {
+        if (items == null || items.isEmpty()) {
+            throw new ProductValidationException("Reservation must contain at least one item");
+        }
         
-        if (newStock < 0) {
-            throw new IllegalArgumentException("Stock cannot be negative. Current: " + oldStock + ", Change: " + stockChange);
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (StockReservationRequest.Item item : items) {
+            if (item.getProductId() == null || item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new ProductValidationException("Each reservation item needs a productId and a positive quantity");
+            }
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
         }
         
-        product.setStock(newStock);
-        Product updatedProduct = productRepository.save(product);
+        List<StockReservationRequest.Item> reserved = new ArrayList<>(quantities.size());
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            Long productId = entry.getKey();
+            int quantity = entry.getValue();
+            productCache.invalidate(productId);
+            if (productRepository.adjustStock(productId, -quantity) != 1) {
+                int available = productRepository.findStockById(productId)
+                    .orElseThrow(() -> new ProductNotFoundException(productId));
+                throw new InsufficientStockException(productId, quantity, available);
+            }
+            reserved.add(new StockReservationRequest.Item(productId, quantity));
+        }
+        return reserved;
+    }
+    
+    /**
+     * Applies stock adjustments sent by other services. Each item carries an
+     * idempotency key; an item whose key was already applied is reported as
+     * DUPLICATE and left alone, so callers can safely redeliver a batch.
+     * Items for unknown products or that would take stock below zero are
+     * reported as REJECTED; the rest of the batch is still applied.
+     * <p>
+     * An item that names the key it {@code reverses} is only applied if that
+     * adjustment was. If it was not, its key is recorded without touching stock,
+     * so the original arriving late (a timed-out call, a retry) is reported as
+     * DUPLICATE instead of being applied after its reversal.
+     */
+    @Transactional
+    public Map<String, String> applyStockAdjustments(List<StockAdjustmentRequest.Item> items) {
+        if (items == null || items.isEmpty()) {
+            throw new ProductValidationException("Adjustment batch must contain at least one item");
+        }
         
-        return convertToDTO(updatedProduct);
+        Map<String, String> outcomes = new LinkedHashMap<>();
+        for (StockAdjustmentRequest.Item item : items) {
+            if (item.getIdempotencyKey() == null || item.getProductId() == null || item.getStockChange() == null) {
+                throw new ProductValidationException("Each adjustment needs an idempotencyKey, a productId and a stockChange");
+            }
+            if (outcomes.containsKey(item.getIdempotencyKey())
+                    || stockAdjustmentRepository.existsById(item.getIdempotencyKey())) {
+                outcomes.put(item.getIdempotencyKey(), STOCK_ADJUSTMENT_DUPLICATE);
+                continue;
+            }
+            if (item.getReverses() != null && !stockAdjustmentRepository.existsById(item.getReverses())) {
+                stockAdjustmentRepository.save(new StockAdjustment(item.getReverses(), item.getProductId(), 0));
+                stockAdjustmentRepository.save(new StockAdjustment(item.getIdempotencyKey(), item.getProductId(), 0));
+                outcomes.put(item.getIdempotencyKey(), STOCK_ADJUSTMENT_APPLIED);
+                continue;
+            }
+            productCache.invalidate(item.getProductId());
+            if (productRepository.adjustStock(item.getProductId(), item.getStockChange()) != 1) {
+                outcomes.put(item.getIdempotencyKey(), STOCK_ADJUSTMENT_REJECTED);
+                continue;
+            }
+            stockAdjustmentRepository.save(new StockAdjustment(
+                item.getIdempotencyKey(), item.getProductId(), item.getStockChange()));
+            outcomes.put(item.getIdempotencyKey(), STOCK_ADJUSTMENT_APPLIED);
+        }
+        return outcomes;
     }
     
     private ProductDTO convertToDTO(Product product) {
-        ProductDTO dto = new ProductDTO();
-        dto.setId(product.getId());
-        dto.setTitle(product.getTitle());
-        dto.setDescription(product.getDescription());
-        dto.setCategory(product.getCategory());
-        dto.setPrice(product.getPrice());
-        dto.setDiscountPercentage(product.getDiscountPercentage());
-        dto.setRating(product.getRating());
-        dto.setStock(product.getStock());
-        dto.setBrand(product.getBrand());
-        dto.setSku(product.getSku());
-        dto.setAvailabilityStatus(product.getAvailabilityStatus());
-        dto.setThumbnail(product.getThumbnail());
+        ProductDTO dto = convertBasicFields(product);
         
         // Convert tags
         if (product.getTags() != null) {
@@ -169,6 +405,64 @@ public class ProductService implements ProductServiceInterface {
         return dto;
     }
     
+    /**
+     * Converts a page of products, loading tags, images and reviews for the
+     * whole page with one IN query each instead of three lazy loads per product.
+     */
+    private Page<ProductDTO> convertPage(Page<Product> products) {
+        return new PageImpl<>(convertToDTOs(products.getContent()), products.getPageable(), products.getTotalElements());
+    }
+    
+    private List<ProductDTO> convertToDTOs(List<Product> products) {
+        if (products.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> ids = products.stream().map(Product::getId).collect(Collectors.toList());
+        
+        Map<Long, List<String>> tags = groupByProductId(productRepository.findTagsByProductIds(ids));
+        Map<Long, List<String>> images = groupByProductId(productRepository.findImageUrlsByProductIds(ids));
+        Map<Long, List<ProductReviewDTO>> reviews = new HashMap<>();
+        for (ProductReview review : productRepository.findReviewsByProductIds(ids)) {
+            reviews.computeIfAbsent(review.getProduct().getId(), id -> new ArrayList<>())
+                .add(convertReviewToDTO(review));
+        }
+        
+        List<ProductDTO> dtos = new ArrayList<>(products.size());
+        for (Product product : products) {
+            ProductDTO dto = convertBasicFields(product);
+            dto.setTags(tags.getOrDefault(product.getId(), new ArrayList<>()));
+            dto.setImages(images.getOrDefault(product.getId(), new ArrayList<>()));
+            dto.setReviews(reviews.getOrDefault(product.getId(), new ArrayList<>()));
+            dtos.add(dto);
+        }
+        return dtos;
+    }
+    
+    private Map<Long, List<String>> groupByProductId(List<Object[]> rows) {
+        Map<Long, List<String>> grouped = new HashMap<>();
+        for (Object[] row : rows) {
+            grouped.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((String) row[1]);
+        }
+        return grouped;
+    }
+    
+    private ProductDTO convertBasicFields(Product product) {
+        ProductDTO dto = new ProductDTO();
+        dto.setId(product.getId());
+        dto.setTitle(product.getTitle());
+        dto.setDescription(product.getDescription());
+        dto.setCategory(product.getCategory());
+        dto.setPrice(product.getPrice());
+        dto.setDiscountPercentage(product.getDiscountPercentage());
+        dto.setRating(product.getRating());
+        dto.setStock(product.getStock());
+        dto.setBrand(product.getBrand());
+        dto.setSku(product.getSku());
+        dto.setAvailabilityStatus(product.getAvailabilityStatus());
+        dto.setThumbnail(product.getThumbnail());
+        return dto;
+    }
+    
     // Category methods
     public List<Category> getAllCategoryEntities() {
         return categoryRepository.findAll();
@@ -0,0 +1,51 @@
+package com.megamart.productserver.service;
+
+import com.megamart.productserver.exception.ProductValidationException;
+import org.springframework.data.domain.Sort;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Sort keys accepted by the product listing endpoints. Each key maps to a
+ * column that is covered by an index on products (see Product's @Table), so
+ * sorted pages never need a filesort over the whole table. The id is always
+ * appended as a tiebreaker to keep page boundaries stable.
+ */
+public enum ProductSortField {
+    ID("id", "id"),
+    PRICE("price", "price"),
+    RATING("rating", "rating");
+
+    private final String key;
+    private final String property;
+
+    ProductSortField(String key, String property) {
+        this.key = key;
+        this.property = property;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public static ProductSortField fromKey(String key) {
+        for (ProductSortField field : values()) {
+            if (field.key.equalsIgnoreCase(key)) {
+                return field;
+            }
+        }
+        throw new ProductValidationException("Unsupported sortBy: " + key + ". Allowed values: " + allowedKeys());
+    }
+
+    public static Sort resolve(String key, String sortDirection) {
+        ProductSortField field = fromKey(key);
+        Sort.Direction direction = "desc".equalsIgnoreCase(sortDirection) ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort sort = Sort.by(direction, field.property);
+        return field == ID ? sort : sort.and(Sort.by(direction, ID.property));
+    }
+
+    private static String allowedKeys() {
+        return Arrays.stream(values()).map(ProductSortField::getKey).collect(Collectors.joining(", "));
+    }
+}
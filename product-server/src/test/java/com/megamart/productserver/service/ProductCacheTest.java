@@ -0,0 +1,57 @@
+package com.megamart.productserver.service;
+
+import com.megamart.productserver.dto.ProductDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductCacheTest {
+
+    private ProductCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ProductCache(100, Duration.ofMinutes(5));
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void get_loadsOnceThenServesFromCache() {
+        assertTrue(cache.get(1L, this::load).isPresent());
+        assertTrue(cache.get(1L, this::load).isPresent());
+
+        assertEquals(1, loads.get());
+        assertEquals(1L, cache.getStats().get("hits"));
+        assertEquals(1L, cache.getStats().get("misses"));
+    }
+
+    @Test
+    void get_doesNotCacheMissingProducts() {
+        assertTrue(cache.get(1L, id -> { loads.incrementAndGet(); return Optional.empty(); }).isEmpty());
+        assertTrue(cache.get(1L, this::load).isPresent());
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void invalidate_forcesReload() {
+        cache.get(1L, this::load);
+        cache.invalidate(1L);
+        cache.get(1L, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    private Optional<ProductDTO> load(Long id) {
+        loads.incrementAndGet();
+        ProductDTO dto = new ProductDTO();
+        dto.setId(id);
+        return Optional.of(dto);
+    }
+}
@@ -0,0 +1,113 @@
+package com.megamart.productserver.service;
+
+import com.megamart.productserver.dto.CategoryFacetDTO;
+import com.megamart.productserver.entity.Product;
+import com.megamart.productserver.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductFacetServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private ProductFacetService facetService;
+
+    @BeforeEach
+    void setUp() {
+        facetService = new ProductFacetService(productRepository,
+            new BigDecimal[] { new BigDecimal("10"), new BigDecimal("50") });
+        facetService.index(product(1L, "phones", "Apple", "999.00"));
+        facetService.index(product(2L, "phones", "Samsung", "45.00"));
+        facetService.index(product(3L, "phones", "Apple", "5.00"));
+        facetService.index(product(4L, "laptops", "Apple", "1500.00"));
+    }
+
+    @Test
+    void getFacets_countsBrandsAndPriceBuckets() {
+        CategoryFacetDTO phones = facetService.getFacets("phones").get(0);
+
+        assertEquals(3, phones.getCount());
+        assertEquals("Apple", phones.getBrands().get(0).getBrand());
+        assertEquals(2, phones.getBrands().get(0).getCount());
+        assertEquals(3, phones.getPriceBuckets().size());
+        assertNull(phones.getPriceBuckets().get(0).getMin());
+        assertEquals(new BigDecimal("50"), phones.getPriceBuckets().get(2).getMin());
+        assertNull(phones.getPriceBuckets().get(2).getMax());
+    }
+
+    @Test
+    void listsCategoriesAndBrands() {
+        assertEquals(List.of("laptops", "phones"), facetService.getCategories());
+        assertEquals(List.of("Apple", "Samsung"), facetService.getBrands());
+        assertEquals(List.of("Apple"), facetService.getBrands("laptops"));
+    }
+
+    @Test
+    void index_movesProductBetweenFacetsOnUpdate() {
+        facetService.index(product(4L, "phones", "Samsung", "20.00"));
+
+        assertEquals(List.of("phones"), facetService.getCategories());
+        CategoryFacetDTO phones = facetService.getFacets("phones").get(0);
+        assertEquals(4, phones.getCount());
+        assertEquals(2, phones.getBrands().get(1).getCount());
+    }
+
+    @Test
+    void remove_dropsEmptyBrandsAndCategories() {
+        facetService.remove(2L);
+        facetService.remove(4L);
+
+        assertEquals(List.of("phones"), facetService.getCategories());
+        assertEquals(List.of("Apple"), facetService.getBrands());
+    }
+
+    @Test
+    void rebuild_keepsServingFacetsAndKeepsChangesMadeDuringTheScan() throws Exception {
+        ExecutorService other = Executors.newSingleThreadExecutor();
+        when(productRepository.findFacetRowsAfter(eq(0L), any(Pageable.class))).thenAnswer(invocation -> {
+            // Another thread reads and writes while the table is being scanned
+            List<String> during = other.submit(() -> facetService.getCategories()).get(5, TimeUnit.SECONDS);
+            assertEquals(List.of("laptops", "phones"), during);
+            other.submit(() -> {
+                facetService.index(product(5L, "tablets", "Samsung", "300.00"));
+                facetService.remove(3L);
+            }).get(5, TimeUnit.SECONDS);
+            return List.<Object[]>of(
+                new Object[] { 1L, "phones", "Apple", new BigDecimal("999.00") },
+                new Object[] { 3L, "phones", "Apple", new BigDecimal("5.00") });
+        });
+
+        facetService.rebuild();
+        other.shutdown();
+
+        assertEquals(List.of("phones", "tablets"), facetService.getCategories());
+        assertEquals(1, facetService.getFacets("phones").get(0).getCount());
+        assertEquals(List.of("Samsung"), facetService.getBrands("tablets"));
+    }
+
+    private Product product(Long id, String category, String brand, String price) {
+        Product product = new Product();
+        product.setId(id);
+        product.setCategory(category);
+        product.setBrand(brand);
+        product.setPrice(new BigDecimal(price));
+        return product;
+    }
+}
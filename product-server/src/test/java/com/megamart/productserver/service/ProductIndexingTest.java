@@ -0,0 +1,66 @@
+package com.megamart.productserver.service;
+
+import com.megamart.productserver.dto.ProductDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class ProductIndexingTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductSearchIndex searchIndex;
+
+    @Autowired
+    private ProductFacetService facetService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void rolledBackCreate_neverReachesTheIndexOrFacets() {
+        transactionTemplate.executeWithoutResult(status -> {
+            productService.createProduct(product("Phantom Lamp", "phantom-lighting"));
+            assertTrue(search("phantom").isEmpty());
+            status.setRollbackOnly();
+        });
+
+        assertTrue(search("phantom").isEmpty());
+        assertFalse(facetService.getCategories().contains("phantom-lighting"));
+    }
+
+    @Test
+    void committedWrites_reachTheIndexAndFacets() {
+        ProductDTO created = productService.createProduct(product("Committed Lamp", "committed-lighting"));
+        assertEquals(List.of(created.getId()), search("committed"));
+        assertTrue(facetService.getCategories().contains("committed-lighting"));
+
+        productService.deleteProduct(created.getId());
+        assertTrue(search("committed").isEmpty());
+        assertFalse(facetService.getCategories().contains("committed-lighting"));
+    }
+
+    private List<Long> search(String query) {
+        return searchIndex.search(query, null, null, null, null, PageRequest.of(0, 10)).getContent();
+    }
+
+    private static ProductDTO product(String title, String category) {
+        ProductDTO dto = new ProductDTO();
+        dto.setTitle(title);
+        dto.setCategory(category);
+        dto.setBrand("Lumen");
+        dto.setPrice(new BigDecimal("19.99"));
+        dto.setStock(5);
+        return dto;
+    }
+}
@@ -0,0 +1,137 @@
+package com.megamart.productserver.service;
+
+import com.megamart.productserver.dto.ProductDTO;
+import com.megamart.productserver.dto.ProductSearchRequest;
+import com.megamart.productserver.dto.ProductSummaryDTO;
+import com.megamart.productserver.entity.Product;
+import com.megamart.productserver.entity.ProductImage;
+import com.megamart.productserver.entity.ProductReview;
+import com.megamart.productserver.entity.ProductTag;
+import com.megamart.productserver.repository.ProductRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class ProductQueryCountTest {
+
+    private static final String CATEGORY = "query-count";
+    private static final int PAGE_SIZE = 30;
+
+    // page select + count + one batch query each for tags, images and reviews
+    private static final long MAX_STATEMENTS_PER_PAGE = 5;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<Long> productIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < PAGE_SIZE + 5; i++) {
+            productIds.add(productRepository.save(productWithCollections(i)).getId());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAllById(productIds);
+    }
+
+    @Test
+    void categoryPage_usesBoundedStatementCount() {
+        Statistics statistics = statistics();
+
+        Page<ProductDTO> page = productService.getProductsByCategory(CATEGORY, 0, PAGE_SIZE);
+
+        assertEquals(PAGE_SIZE, page.getContent().size());
+        assertTrue(statistics.getPrepareStatementCount() <= MAX_STATEMENTS_PER_PAGE,
+            "Expected at most " + MAX_STATEMENTS_PER_PAGE + " statements but got " + statistics.getPrepareStatementCount());
+
+        ProductDTO first = page.getContent().get(0);
+        assertEquals(List.of("tag-a", "tag-b"), first.getTags());
+        assertEquals(2, first.getImages().size());
+        assertEquals(2, first.getReviews().size());
+    }
+
+    @Test
+    void listAndSearchPages_useBoundedStatementCount() {
+        Statistics statistics = statistics();
+        productService.getAllProducts(0, PAGE_SIZE, "id", "asc");
+        assertTrue(statistics.getPrepareStatementCount() <= MAX_STATEMENTS_PER_PAGE);
+
+        statistics.clear();
+        productService.getProductsInStock(0, PAGE_SIZE);
+        assertTrue(statistics.getPrepareStatementCount() <= MAX_STATEMENTS_PER_PAGE);
+
+        statistics.clear();
+        ProductSearchRequest request = new ProductSearchRequest();
+        request.setCategory(CATEGORY);
+        request.setSize(PAGE_SIZE);
+        productService.searchProducts(request);
+        assertTrue(statistics.getPrepareStatementCount() <= MAX_STATEMENTS_PER_PAGE);
+    }
+
+    @Test
+    void summaryPage_skipsCollectionQueries() {
+        Statistics statistics = statistics();
+
+        Page<ProductSummaryDTO> page = productService.getProductSummariesByCategory(CATEGORY, 0, PAGE_SIZE);
+
+        assertEquals(PAGE_SIZE, page.getContent().size());
+        assertTrue(statistics.getPrepareStatementCount() <= 2);
+        ProductSummaryDTO first = page.getContent().get(0);
+        assertEquals(new BigDecimal("10.00"), first.getPrice());
+        assertEquals(5, first.getStock());
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        return statistics;
+    }
+
+    private Product productWithCollections(int i) {
+        Product product = new Product();
+        product.setTitle("Query count product " + i);
+        product.setCategory(CATEGORY);
+        product.setPrice(new BigDecimal("10.00"));
+        product.setStock(5);
+
+        List<ProductTag> tags = new ArrayList<>();
+        tags.add(new ProductTag(null, "tag-a", product, null, null));
+        tags.add(new ProductTag(null, "tag-b", product, null, null));
+        product.setTags(tags);
+
+        List<ProductImage> images = new ArrayList<>();
+        images.add(new ProductImage(null, "https://img.example/" + i + "/1.png", true, product, null, null));
+        images.add(new ProductImage(null, "https://img.example/" + i + "/2.png", false, product, null, null));
+        product.setImages(images);
+
+        List<ProductReview> reviews = new ArrayList<>();
+        reviews.add(new ProductReview(null, 5, "Great", "Ann", "ann@example.com", LocalDateTime.now(), product, null, null));
+        reviews.add(new ProductReview(null, 4, "Good", "Bob", "bob@example.com", LocalDateTime.now(), product, null, null));
+        product.setReviews(reviews);
+        return product;
+    }
+}
@@ -0,0 +1,95 @@
+package com.megamart.productserver.service;
+
+import com.megamart.productserver.dto.ProductCursorPage;
+import com.megamart.productserver.dto.ProductDTO;
+import com.megamart.productserver.entity.Product;
+import com.megamart.productserver.exception.ProductValidationException;
+import com.megamart.productserver.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class ProductScrollTest {
+
+    private static final String CATEGORY = "scroll";
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final List<Product> products = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 25; i++) {
+            Product product = new Product();
+            product.setTitle("Scroll product " + i);
+            product.setCategory(CATEGORY);
+            // Repeated prices make the id tiebreaker matter
+            product.setPrice(new BigDecimal(10 + (i * 7) % 5).setScale(2));
+            product.setStock(1);
+            products.add(productRepository.save(product));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAll(products);
+    }
+
+    @Test
+    void scrollByPrice_visitsEveryProductOnceInOrder() {
+        List<Long> expected = products.stream()
+            .sorted(Comparator.comparing(Product::getPrice).thenComparing(Product::getId))
+            .map(Product::getId)
+            .toList();
+
+        assertEquals(expected, walk("price", "asc"));
+        assertEquals(expected, walk("Price", "ASC"));
+    }
+
+    @Test
+    void scrollByIdDescending_visitsEveryProductOnceInOrder() {
+        List<Long> expected = products.stream()
+            .map(Product::getId)
+            .sorted(Comparator.reverseOrder())
+            .toList();
+
+        assertEquals(expected, walk("id", "desc"));
+    }
+
+    @Test
+    void scroll_rejectsUnsupportedSortAndMismatchedCursor() {
+        assertThrows(ProductValidationException.class,
+            () -> productService.scrollProducts(CATEGORY, null, 10, "description", "asc"));
+
+        String cursor = productService.scrollProducts(CATEGORY, null, 10, "price", "asc").getNextCursor();
+        assertThrows(ProductValidationException.class,
+            () -> productService.scrollProducts(CATEGORY, cursor, 10, "id", "asc"));
+        assertEquals(10, productService.scrollProducts(CATEGORY, cursor, 10, "PRICE", "asc").getContent().size());
+    }
+
+    private List<Long> walk(String sortBy, String sortDirection) {
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            ProductCursorPage page = productService.scrollProducts(CATEGORY, cursor, 10, sortBy, sortDirection);
+            page.getContent().stream().map(ProductDTO::getId).forEach(seen::add);
+            cursor = page.getNextCursor();
+            assertEquals(page.isHasNext(), cursor != null);
+        } while (cursor != null);
+        return seen;
+    }
+}
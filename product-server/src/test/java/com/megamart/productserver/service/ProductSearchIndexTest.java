@@ -0,0 +1,142 @@
+package com.megamart.productserver.service;
+
+import com.megamart.productserver.entity.Product;
+import com.megamart.productserver.entity.ProductTag;
+import com.megamart.productserver.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductSearchIndexTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex(productRepository);
+        index.index(product(1L, "Wireless Mouse", "Ergonomic mouse for laptops", "electronics", "Logi", "25.00", "gaming"));
+        index.index(product(2L, "Mechanical Keyboard", "Keyboard with wireless receiver", "electronics", "Keychron", "89.00"));
+        index.index(product(3L, "Mouse Pad", "Large desk mat", "accessories", "Logi", "12.00"));
+    }
+
+    @Test
+    void search_ranksTitleMatchesAboveDescriptionMatches() {
+        Page<Long> result = index.search("wireless", null, null, null, null, PageRequest.of(0, 10));
+
+        assertEquals(List.of(1L, 2L), result.getContent());
+        assertEquals(2, result.getTotalElements());
+    }
+
+    @Test
+    void search_requiresEveryTokenAndMatchesPrefixes() {
+        Page<Long> result = index.search("mou log", null, null, null, null, PageRequest.of(0, 10));
+
+        assertEquals(2, result.getTotalElements());
+        assertTrue(result.getContent().containsAll(List.of(1L, 3L)));
+    }
+
+    @Test
+    void search_matchesTags() {
+        Page<Long> result = index.search("gaming", null, null, null, null, PageRequest.of(0, 10));
+
+        assertEquals(List.of(1L), result.getContent());
+    }
+
+    @Test
+    void search_appliesFiltersAndSort() {
+        Page<Long> result = index.search("mouse", null, "Logi", null, new BigDecimal("30.00"),
+            PageRequest.of(0, 10, Sort.by("price").ascending()));
+
+        assertEquals(List.of(3L, 1L), result.getContent());
+
+        Page<Long> filtered = index.search("mouse", "accessories", null, null, null, PageRequest.of(0, 10));
+        assertEquals(List.of(3L), filtered.getContent());
+    }
+
+    @Test
+    void search_pagesResults() {
+        Page<Long> result = index.search("mouse", null, null, null, null,
+            PageRequest.of(1, 1, Sort.by("price").ascending()));
+
+        assertEquals(List.of(1L), result.getContent());
+        assertEquals(2, result.getTotalElements());
+    }
+
+    @Test
+    void index_replacesPreviousTermsOnUpdate() {
+        index.index(product(3L, "Desk Mat", "Large desk mat", "accessories", "Logi", "12.00"));
+
+        assertEquals(List.of(1L), index.search("mouse", null, null, null, null, PageRequest.of(0, 10)).getContent());
+        assertEquals(List.of(3L), index.search("desk", null, null, null, null, PageRequest.of(0, 10)).getContent());
+    }
+
+    @Test
+    void remove_dropsProductFromResults() {
+        index.remove(1L);
+
+        assertEquals(List.of(3L), index.search("mouse", null, null, null, null, PageRequest.of(0, 10)).getContent());
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void rebuild_keepsServingSearchesAndKeepsChangesMadeDuringTheScan() throws Exception {
+        ExecutorService other = Executors.newSingleThreadExecutor();
+        when(productRepository.findBatchAfter(eq(0L), any(Pageable.class))).thenAnswer(invocation -> {
+            // Another thread searches and writes while the table is being scanned
+            Page<Long> during = other.submit(() -> index.search("mouse", null, null, null, null, PageRequest.of(0, 10)))
+                .get(5, TimeUnit.SECONDS);
+            assertEquals(2, during.getTotalElements());
+            other.submit(() -> {
+                index.index(product(4L, "Trackball Mouse", "Thumb trackball", "electronics", "Logi", "49.00"));
+                index.remove(3L);
+            }).get(5, TimeUnit.SECONDS);
+            return List.of(
+                product(1L, "Wireless Mouse", "Ergonomic mouse for laptops", "electronics", "Logi", "25.00"),
+                product(3L, "Mouse Pad", "Large desk mat", "accessories", "Logi", "12.00"));
+        });
+
+        index.rebuild();
+        other.shutdown();
+
+        assertEquals(List.of(1L, 4L),
+            index.search("mouse", null, null, null, new BigDecimal("100"), PageRequest.of(0, 10, Sort.by("price"))).getContent());
+        assertEquals(2, index.size());
+    }
+
+    private Product product(Long id, String title, String description, String category, String brand,
+                            String price, String... tags) {
+        Product product = new Product();
+        product.setId(id);
+        product.setTitle(title);
+        product.setDescription(description);
+        product.setCategory(category);
+        product.setBrand(brand);
+        product.setPrice(new BigDecimal(price));
+        product.setTags(Arrays.stream(tags)
+            .map(tag -> new ProductTag(null, tag, product, null, null))
+            .toList());
+        return product;
+    }
+}
@@ -0,0 +1,110 @@
+package com.megamart.productserver.service;
+
+import com.megamart.productserver.entity.Product;
+import com.megamart.productserver.repository.ProductRepository;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sorted-page latency with and without the products indexes.
+ * Run with: mvn test -Dtest=ProductSortBenchmarkTest -Dbenchmark=true [-Dbenchmark.rows=50000]
+ */
+@Slf4j
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ProductSortBenchmarkTest {
+
+    private static final String CATEGORY = "bench-0";
+    private static final String BRAND = "bench-brand-0";
+    private static final int ITERATIONS = 200;
+    // Read from the entity, so the benchmark always covers the indexes the schema declares
+    private static final Table TABLE = Product.class.getAnnotation(Table.class);
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        int rows = Integer.getInteger("benchmark.rows", 20000);
+        List<Object[]> batch = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            batch.add(new Object[] { "Bench " + i, "bench-" + (i % 20), "bench-brand-" + (i % 50),
+                (i * 7919) % 100000 / 100.0, (i % 50) / 10.0, i % 100 });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO products (title, category, brand, price, rating, stock) VALUES (?, ?, ?, ?, ?, ?)", batch);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM products WHERE category LIKE 'bench-%'");
+        createIndexes();
+    }
+
+    @Test
+    void sortedPageLatency_beforeAndAfterIndexes() {
+        dropIndexes();
+        Map<String, Double> before = measure();
+        createIndexes();
+        Map<String, Double> after = measure();
+
+        log.info("Sorted page latency (avg ms over {} runs)", ITERATIONS);
+        before.forEach((name, millis) -> log.info(String.format("  %-28s without indexes: %8.3f   with indexes: %8.3f",
+            name, millis, after.get(name))));
+    }
+
+    private Map<String, Double> measure() {
+        return Map.of(
+            "price asc, page 10", time(() -> productService.getAllProductSummaries(10, 30, "price", "asc")),
+            "rating desc, page 10", time(() -> productService.getAllProductSummaries(10, 30, "rating", "desc")),
+            "category by price, page 5", time(() -> productRepository.findSummariesByCategory(CATEGORY,
+                PageRequest.of(5, 30, ProductSortField.resolve("price", "asc")))),
+            "brand by price, page 5", time(() -> productRepository.findByBrand(BRAND,
+                PageRequest.of(5, 30, ProductSortField.resolve("price", "asc")))),
+            "in stock, page 10", time(() -> productRepository.findSummariesByStockGreaterThan(0,
+                PageRequest.of(10, 30, ProductSortField.resolve("price", "asc")))));
+    }
+
+    private double time(Runnable query) {
+        for (int i = 0; i < 20; i++) {
+            query.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            query.run();
+        }
+        return (System.nanoTime() - start) / 1_000_000.0 / ITERATIONS;
+    }
+
+    private void dropIndexes() {
+        for (Index index : TABLE.indexes()) {
+            jdbcTemplate.execute("DROP INDEX IF EXISTS " + index.name());
+        }
+    }
+
+    private void createIndexes() {
+        for (Index index : TABLE.indexes()) {
+            jdbcTemplate.execute("CREATE " + (index.unique() ? "UNIQUE " : "") + "INDEX IF NOT EXISTS " + index.name()
+                + " ON " + TABLE.name() + " (" + index.columnList() + ")");
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.megamart.productserver.service;
+
+import com.megamart.productserver.dto.StockAdjustmentRequest;
+import com.megamart.productserver.dto.StockReservationRequest;
+import com.megamart.productserver.entity.Product;
+import com.megamart.productserver.exception.InsufficientStockException;
+import com.megamart.productserver.exception.ProductNotFoundException;
+import com.megamart.productserver.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class ProductStockConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS_PER_THREAD = 25;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        Product product = new Product();
+        product.setTitle("Contended SKU");
+        product.setCategory("test");
+        product.setPrice(new BigDecimal("9.99"));
+        product.setStock(100);
+        productId = productRepository.save(product).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteById(productId);
+    }
+
+    @Test
+    void concurrentDecrements_neverOversell() throws Exception {
+        AtomicInteger applied = new AtomicInteger();
+        runConcurrently(i -> {
+            if (tryUpdateStock(-1)) {
+                applied.incrementAndGet();
+            }
+        });
+
+        assertEquals(100, applied.get());
+        assertEquals(0, currentStock());
+    }
+
+    @Test
+    void concurrentMixedChanges_loseNoUpdates() throws Exception {
+        AtomicInteger netApplied = new AtomicInteger();
+        runConcurrently(i -> {
+            int delta = i % 2 == 0 ? -3 : 2;
+            if (tryUpdateStock(delta)) {
+                netApplied.addAndGet(delta);
+            }
+        });
+
+        int stock = currentStock();
+        assertEquals(100 + netApplied.get(), stock);
+        assertTrue(stock >= 0);
+    }
+
+    @Test
+    void updateStock_rejectsChangeBelowZero() {
+        assertThrows(InsufficientStockException.class, () -> productService.updateStock(productId, -101));
+        assertEquals(100, currentStock());
+        assertEquals(0, productService.updateStock(productId, -100).getStock());
+        assertEquals(0, currentStock());
+    }
+
+    @Test
+    void updateStock_unknownProductThrows() {
+        assertThrows(ProductNotFoundException.class, () -> productService.updateStock(Long.MAX_VALUE, -1));
+    }
+
+    @Test
+    void reserveStock_rollsBackWholeReservationWhenAnyItemIsShort() {
+        Product other = new Product();
+        other.setTitle("Scarce SKU");
+        other.setCategory("test");
+        other.setPrice(new BigDecimal("1.00"));
+        other.setStock(1);
+        Long otherId = productRepository.save(other).getId();
+        try {
+            assertThrows(InsufficientStockException.class, () -> productService.reserveStock(List.of(
+                new StockReservationRequest.Item(productId, 10),
+                new StockReservationRequest.Item(otherId, 2))));
+            assertEquals(100, currentStock());
+
+            productService.reserveStock(List.of(
+                new StockReservationRequest.Item(productId, 10),
+                new StockReservationRequest.Item(otherId, 1),
+                new StockReservationRequest.Item(productId, 5)));
+            assertEquals(85, currentStock());
+            assertEquals(0, productRepository.findById(otherId).orElseThrow().getStock());
+        } finally {
+            productRepository.deleteById(otherId);
+        }
+    }
+
+    @Test
+    void applyStockAdjustments_appliesEachIdempotencyKeyOnce() {
+        Map<String, String> first = productService.applyStockAdjustments(List.of(
+            new StockAdjustmentRequest.Item("order-1-item-1-restock", productId, 5),
+            new StockAdjustmentRequest.Item("order-1-item-2-restock", Long.MAX_VALUE, 1),
+            new StockAdjustmentRequest.Item("order-2-item-3-reserve", productId, -500)));
+        assertEquals("APPLIED", first.get("order-1-item-1-restock"));
+        assertEquals("REJECTED", first.get("order-1-item-2-restock"));
+        assertEquals("REJECTED", first.get("order-2-item-3-reserve"));
+        assertEquals(105, currentStock());
+
+        Map<String, String> redelivered = productService.applyStockAdjustments(List.of(
+            new StockAdjustmentRequest.Item("order-1-item-1-restock", productId, 5)));
+        assertEquals("DUPLICATE", redelivered.get("order-1-item-1-restock"));
+        assertEquals(105, currentStock());
+    }
+
+    @Test
+    void applyStockAdjustments_reversalUndoesAnAppliedKeyAndBlocksOneNotYetSeen() {
+        productService.applyStockAdjustments(List.of(
+            new StockAdjustmentRequest.Item("checkout-a-reserve", productId, -4)));
+        Map<String, String> undone = productService.applyStockAdjustments(List.of(
+            new StockAdjustmentRequest.Item("checkout-a-release", productId, 4, "checkout-a-reserve")));
+        assertEquals("APPLIED", undone.get("checkout-a-release"));
+        assertEquals(100, currentStock());
+
+        // The release overtakes its reservation: nothing to undo, and the late reservation is dropped
+        Map<String, String> early = productService.applyStockAdjustments(List.of(
+            new StockAdjustmentRequest.Item("checkout-b-release", productId, 4, "checkout-b-reserve")));
+        assertEquals("APPLIED", early.get("checkout-b-release"));
+        Map<String, String> late = productService.applyStockAdjustments(List.of(
+            new StockAdjustmentRequest.Item("checkout-b-reserve", productId, -4)));
+        assertEquals("DUPLICATE", late.get("checkout-b-reserve"));
+        assertEquals(100, currentStock());
+    }
+
+    private boolean tryUpdateStock(int delta) {
+        try {
+            productService.updateStock(productId, delta);
+            return true;
+        } catch (InsufficientStockException e) {
+            return false;
+        }
+    }
+
+    private int currentStock() {
+        return productRepository.findById(productId).orElseThrow().getStock();
+    }
+
+    private void runConcurrently(StockTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    task.run(i);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+    }
+
+    @FunctionalInterface
+    private interface StockTask {
+        void run(int attempt);
+    }
+}
@@ -29,6 +29,12 @@ public class AddressController {
         return ResponseEntity.ok(addressService.getUserAddresses(userId));
     }
 
+    @GetMapping(params = "ids")
+    @Operation(summary = "Get addresses by IDs", description = "Get several addresses of a user in one call; unknown IDs are omitted")
+    public ResponseEntity<List<UserAddress>> getAddressesByIds(@PathVariable String userId, @RequestParam List<Long> ids) {
+        return ResponseEntity.ok(addressService.getAddressesByIds(userId, ids));
+    }
+
     @GetMapping("/{addressId}")
     @Operation(summary = "Get address by ID", description = "Get a specific address by address ID for a user")
     public ResponseEntity<UserAddress> getAddressById(@PathVariable String userId, @PathVariable Long addressId) {
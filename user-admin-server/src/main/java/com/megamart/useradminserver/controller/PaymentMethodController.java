@@ -25,6 +25,11 @@ public class PaymentMethodController {
         return ResponseEntity.ok(paymentMethodService.getUserPaymentMethods(userId));
     }
 
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<UserPaymentMethod>> getPaymentMethodsByIds(@PathVariable String userId, @RequestParam List<Long> ids) {
+        return ResponseEntity.ok(paymentMethodService.getPaymentMethodsByIds(userId, ids));
+    }
+
     @PostMapping
     public ResponseEntity<UserPaymentMethod> addPaymentMethod(@PathVariable String userId, @Valid @RequestBody PaymentMethodDto paymentMethodDto) {
         UserPaymentMethod paymentMethod = paymentMethodService.addPaymentMethod(userId, paymentMethodDto);
@@ -4,10 +4,12 @@ import com.megamart.useradminserver.entity.UserAddress;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface UserAddressRepository extends JpaRepository<UserAddress, Long> {
     List<UserAddress> findByUserId(String userId);
+    List<UserAddress> findByUserIdAndIdIn(String userId, Collection<Long> ids);
     void deleteByUserIdAndId(String userId, Long id);
 }
\ No newline at end of file
@@ -4,10 +4,12 @@ import com.megamart.useradminserver.entity.UserPaymentMethod;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface UserPaymentMethodRepository extends JpaRepository<UserPaymentMethod, Long> {
     List<UserPaymentMethod> findByUserId(String userId);
+    List<UserPaymentMethod> findByUserIdAndIdIn(String userId, Collection<Long> ids);
     void deleteByUserIdAndId(String userId, Long id);
 }
\ No newline at end of file
@@ -8,6 +8,7 @@ import java.util.List;
 public interface AddressService {
     List<UserAddress> getUserAddresses(String userId);
     UserAddress getAddressById(String userId, Long addressId);
+    List<UserAddress> getAddressesByIds(String userId, List<Long> addressIds);
     UserAddress addAddress(String userId, AddressDto addressDto);
     UserAddress updateAddress(String userId, Long addressId, AddressDto addressDto);
     void deleteAddress(String userId, Long addressId);
@@ -39,6 +39,13 @@ public class AddressServiceImpl implements AddressService {
         return address;
     }
 
+    @Override
+    public List<UserAddress> getAddressesByIds(String userId, List<Long> addressIds) {
+        validateUserExists(userId);
+        // Ids that do not exist or belong to another user are simply left out
+        return addressRepository.findByUserIdAndIdIn(userId, addressIds);
+    }
+
     @Override
     public UserAddress addAddress(String userId, AddressDto addressDto) {
         validateUserExists(userId);
@@ -7,6 +7,7 @@ import java.util.List;
 
 public interface PaymentMethodService {
     List<UserPaymentMethod> getUserPaymentMethods(String userId);
+    List<UserPaymentMethod> getPaymentMethodsByIds(String userId, List<Long> methodIds);
     UserPaymentMethod addPaymentMethod(String userId, PaymentMethodDto paymentMethodDto);
     UserPaymentMethod updatePaymentMethod(String userId, Long methodId, PaymentMethodDto paymentMethodDto);
     void deletePaymentMethod(String userId, Long methodId);
@@ -25,6 +25,13 @@ public class PaymentMethodServiceImpl implements PaymentMethodService {
         return paymentMethodRepository.findByUserId(userId);
     }
 
+    @Override
+    public List<UserPaymentMethod> getPaymentMethodsByIds(String userId, List<Long> methodIds) {
+        validateUserExists(userId);
+        // Ids that do not exist or belong to another user are simply left out
+        return paymentMethodRepository.findByUserIdAndIdIn(userId, methodIds);
+    }
+
     @Override
     public UserPaymentMethod addPaymentMethod(String userId, PaymentMethodDto paymentMethodDto) {
         validateUserExists(userId);